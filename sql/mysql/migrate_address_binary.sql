@@ -0,0 +1,30 @@
+-- 将已有库中 0x 开头的十六进制地址列（VARCHAR(42)）迁移为BINARY(20)
+-- 适用于地址值类型（Address）引入之前创建的表，执行前请备份数据并停止应用；
+-- 删除旧列时MySQL会一并删除只包含该列的索引，迁移后重新创建
+--
+-- 旧数据中同一地址可能以不同大小写出现，迁移后会违反唯一键，先检查：
+--   SELECT LOWER(wallet_address), COUNT(*) FROM aave_holders GROUP BY LOWER(wallet_address) HAVING COUNT(*) > 1;
+
+-- aave_holders.wallet_address
+ALTER TABLE aave_holders ADD COLUMN wallet_address_bin BINARY(20) NULL AFTER wallet_address;
+UPDATE aave_holders SET wallet_address_bin = UNHEX(SUBSTRING(wallet_address, 3));
+ALTER TABLE aave_holders DROP COLUMN wallet_address;
+ALTER TABLE aave_holders CHANGE COLUMN wallet_address_bin wallet_address BINARY(20) NOT NULL;
+ALTER TABLE aave_holders ADD UNIQUE KEY idx_wallet_address (wallet_address);
+
+-- aave_token_transfers.from_address / to_address（该表已按字符串地址创建时执行）
+ALTER TABLE aave_token_transfers
+    ADD COLUMN from_address_bin BINARY(20) NULL AFTER from_address,
+    ADD COLUMN to_address_bin BINARY(20) NULL AFTER to_address;
+UPDATE aave_token_transfers
+SET from_address_bin = UNHEX(SUBSTRING(from_address, 3)),
+    to_address_bin = UNHEX(SUBSTRING(to_address, 3));
+ALTER TABLE aave_token_transfers
+    DROP COLUMN from_address,
+    DROP COLUMN to_address;
+ALTER TABLE aave_token_transfers
+    CHANGE COLUMN from_address_bin from_address BINARY(20) NOT NULL,
+    CHANGE COLUMN to_address_bin to_address BINARY(20) NOT NULL;
+ALTER TABLE aave_token_transfers
+    ADD INDEX idx_transfer_from_address (from_address),
+    ADD INDEX idx_transfer_to_address (to_address);
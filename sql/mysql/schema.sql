@@ -0,0 +1,56 @@
+-- AAVE持有者分析 MySQL表结构（生产环境 ddl-auto: validate，需预先执行）
+-- 地址列以20字节原始值保存为BINARY(20)
+
+CREATE TABLE IF NOT EXISTS aave_holders (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    wallet_address BINARY(20) NOT NULL,
+    holding_amount DECIMAL(30,18) NOT NULL,
+    first_purchase_time DATETIME(6),
+    first_purchase_price DECIMAL(20,8),
+    first_purchase_amount DECIMAL(30,18),
+    current_price DECIMAL(20,8) NOT NULL,
+    cost_basis DECIMAL(30,8),
+    current_value DECIMAL(30,8) NOT NULL,
+    profit_loss DECIMAL(30,8),
+    profit_loss_percentage DECIMAL(10,2),
+    data_source VARCHAR(50) NOT NULL DEFAULT 'Etherscan',
+    last_updated DATETIME(6) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    -- 持有者批量upsert（ON DUPLICATE KEY UPDATE）依赖该唯一键
+    UNIQUE KEY idx_wallet_address (wallet_address),
+    INDEX idx_holding_amount (holding_amount),
+    INDEX idx_profit_loss_percentage (profit_loss_percentage),
+    -- 定时刷新估计数据陈旧时间上界（MIN(last_updated)）
+    INDEX idx_last_updated (last_updated)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- 每日AAVE价格（UTC日期），按日期主键保存
+CREATE TABLE IF NOT EXISTS aave_daily_prices (
+    price_date DATE PRIMARY KEY,
+    price DECIMAL(20,8) NOT NULL,
+    data_source VARCHAR(50) NOT NULL DEFAULT 'CoinGecko',
+    created_at DATETIME(6) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- 增量同步检查点：aave_token_transfers（已拉取的区块）、aave_holders（已写入持有者表的区块）、
+-- aave_daily_prices（已请求过价格的最后UTC日期，以epoch day保存）
+CREATE TABLE IF NOT EXISTS sync_checkpoints (
+    name VARCHAR(64) PRIMARY KEY,
+    block_number BIGINT NOT NULL,
+    last_updated DATETIME(6) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- AAVE转账记录，按区块顺序累积的完整转账历史
+-- 同一交易可包含多笔转账，tx_hash不唯一；去重依赖检查点只提交完整区块
+CREATE TABLE IF NOT EXISTS aave_token_transfers (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    block_number BIGINT NOT NULL,
+    block_timestamp BIGINT NOT NULL,
+    tx_hash VARCHAR(66) NOT NULL,
+    from_address BINARY(20) NOT NULL,
+    to_address BINARY(20) NOT NULL,
+    raw_value DECIMAL(38,0) NOT NULL,
+    INDEX idx_transfer_block_number (block_number),
+    INDEX idx_transfer_from_address (from_address),
+    INDEX idx_transfer_to_address (to_address)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,12 @@
+package com.defi.aave.client;
+
+/**
+ * API以正常响应体表示限流时抛出（如Etherscan返回HTTP 200但result为"Max rate limit reached"）
+ * 与HTTP 429同样处理：降低限流器速率并重试
+ */
+public class ApiThrottledException extends RuntimeException {
+    
+    public ApiThrottledException(String provider) {
+        super(provider + " API rate limit reached (reported in response body)");
+    }
+}
@@ -0,0 +1,147 @@
+package com.defi.aave.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 熔断器
+ * 每个外部API提供方一个实例：连续失败达到阈值后熔断，熔断期间直接拒绝请求；
+ * 熔断到期后进入半开状态，只放行一个试探请求，成功则恢复，失败则重新熔断
+ * 当前状态通过aave.api.circuit.state指标暴露（当前状态对应的state标签值为1）
+ */
+@Slf4j
+public class CircuitBreaker {
+    
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+    
+    private final String provider;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final Counter rejectedCounter;
+    
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean trialInFlight;
+    private long trialStartedNanos;
+    
+    public CircuitBreaker(String provider, int failureThreshold, Duration openDuration, MeterRegistry meterRegistry) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("failureThreshold must be positive for provider " + provider);
+        }
+        this.provider = provider;
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        
+        for (State candidate : State.values()) {
+            Gauge.builder("aave.api.circuit.state", this, breaker -> breaker.getState() == candidate ? 1 : 0)
+                    .description("Circuit breaker state (1 for the current state)")
+                    .tag("provider", provider)
+                    .tag("state", candidate.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry);
+        }
+        this.rejectedCounter = Counter.builder("aave.api.circuit.rejected")
+                .description("Calls rejected while the circuit breaker was open")
+                .tag("provider", provider)
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 申请调用许可，熔断期间抛出CircuitBreakerOpenException
+     */
+    public void acquirePermission() {
+        long remainingNanos = tryAcquirePermission();
+        if (remainingNanos > 0) {
+            rejectedCounter.increment();
+            throw new CircuitBreakerOpenException(provider, Duration.ofNanos(remainingNanos));
+        }
+    }
+    
+    /**
+     * 调用成功，关闭熔断器
+     */
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        if (state != State.CLOSED) {
+            transitionTo(State.CLOSED);
+        }
+    }
+    
+    /**
+     * 调用失败（服务端错误或网络错误），累计失败次数，半开状态下直接重新熔断
+     */
+    public synchronized void onFailure() {
+        trialInFlight = false;
+        if (state == State.HALF_OPEN) {
+            open(System.nanoTime());
+        } else if (state == State.CLOSED && ++consecutiveFailures >= failureThreshold) {
+            open(System.nanoTime());
+        }
+    }
+    
+    /**
+     * 调用结果不反映提供方是否可用（如限流、请求参数错误、调用取消），只释放半开状态的试探许可
+     */
+    public synchronized void onIgnored() {
+        trialInFlight = false;
+    }
+    
+    public synchronized State getState() {
+        return state;
+    }
+    
+    /**
+     * @return 0表示允许调用；否则为熔断剩余的纳秒数
+     */
+    private synchronized long tryAcquirePermission() {
+        long now = System.nanoTime();
+        switch (state) {
+            case CLOSED:
+                return 0;
+            case OPEN:
+                long remaining = openedAtNanos + openDurationNanos - now;
+                if (remaining > 0) {
+                    return remaining;
+                }
+                transitionTo(State.HALF_OPEN);
+                return startTrial(now);
+            default:
+                // 试探请求未记录结果（如线程中断）超过熔断时长时，允许新的试探请求
+                if (trialInFlight && now - trialStartedNanos < openDurationNanos) {
+                    return Math.max(1, trialStartedNanos + openDurationNanos - now);
+                }
+                return startTrial(now);
+        }
+    }
+    
+    private long startTrial(long now) {
+        trialInFlight = true;
+        trialStartedNanos = now;
+        return 0;
+    }
+    
+    private void open(long now) {
+        openedAtNanos = now;
+        consecutiveFailures = 0;
+        transitionTo(State.OPEN);
+    }
+    
+    private void transitionTo(State next) {
+        if (next == State.OPEN) {
+            log.warn("{} API circuit breaker {} -> OPEN for {}ms",
+                    provider, state, TimeUnit.NANOSECONDS.toMillis(openDurationNanos));
+        } else {
+            log.info("{} API circuit breaker {} -> {}", provider, state, next);
+        }
+        state = next;
+    }
+}
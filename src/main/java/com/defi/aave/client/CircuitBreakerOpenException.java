@@ -0,0 +1,13 @@
+package com.defi.aave.client;
+
+import java.time.Duration;
+
+/**
+ * 熔断期间调用外部API时抛出，不会被重试
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+    
+    public CircuitBreakerOpenException(String provider, Duration remaining) {
+        super(provider + " API circuit breaker is open, retry in " + remaining.toMillis() + "ms");
+    }
+}
@@ -4,17 +4,21 @@ import com.defi.aave.config.AaveProperties;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.github.benmanes.caffeine.cache.Cache;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.math.BigDecimal;
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -29,13 +33,12 @@ public class CoinGeckoApiClient {
     private AaveProperties aaveProperties;
     
     @Autowired
-    private RestTemplate restTemplate;
+    @Qualifier("coingeckoApiExecutor")
+    private ResilientApiExecutor apiExecutor;
     
     @Autowired
     private Cache<String, BigDecimal> priceCache;
     
-    private static final int MAX_RETRIES = 3;
-    private static final long RETRY_DELAY_MS = 1000;
     private static final String PRICE_CACHE_KEY = "aave_current_price";
     
     /**
@@ -59,7 +62,7 @@ public class CoinGeckoApiClient {
                     .toUriString();
             
             log.debug("Fetching current AAVE price from CoinGecko");
-            SimplePrice response = executeWithRetry(url, SimplePrice.class);
+            SimplePrice response = apiExecutor.execute(url, SimplePrice.class);
             
             if (response != null && response.getAave() != null) {
                 BigDecimal price = response.getAave().getUsd();
@@ -78,72 +81,92 @@ public class CoinGeckoApiClient {
     }
     
     /**
-     * 获取历史价格（指定时间点的价格）
+     * 获取历史价格（指定时间点所在UTC日期的价格）
      * @param timestamp Unix时间戳（秒）
      */
     public BigDecimal getHistoricalPrice(long timestamp) {
+        return getHistoricalPrice(Instant.ofEpochSecond(timestamp).atZone(ZoneOffset.UTC).toLocalDate());
+    }
+    
+    /**
+     * 获取历史价格（指定UTC日期的价格）
+     * 建议通过PriceHistoryService调用，以复用已缓存的日期价格
+     */
+    public BigDecimal getHistoricalPrice(LocalDate day) {
+        String date = formatHistoryDate(day);
         try {
-            // CoinGecko的历史价格API需要日期格式：dd-mm-yyyy
-            LocalDateTime dateTime = LocalDateTime.ofInstant(
-                    Instant.ofEpochSecond(timestamp), 
-                    ZoneId.systemDefault()
-            );
-            String date = String.format("%02d-%02d-%d", 
-                    dateTime.getDayOfMonth(), 
-                    dateTime.getMonthValue(), 
-                    dateTime.getYear());
-            
-            String url = UriComponentsBuilder
-                    .fromHttpUrl(aaveProperties.getCoingecko().getApiUrl())
-                    .path("/coins/" + aaveProperties.getCoingecko().getTokenId() + "/history")
-                    .queryParam("date", date)
-                    .queryParam("localization", "false")
-                    .toUriString();
-            
             log.debug("Fetching historical AAVE price for date: {}", date);
-            HistoricalPrice response = executeWithRetry(url, HistoricalPrice.class);
-            
-            if (response != null && response.getMarketData() != null 
-                    && response.getMarketData().getCurrentPrice() != null) {
-                BigDecimal price = response.getMarketData().getCurrentPrice().get("usd");
-                log.debug("Historical AAVE price for {}: ${}", date, price);
-                return price;
-            }
-            
-            log.warn("No historical price data found for date: {}", date);
-            return null;
+            HistoricalPrice response = apiExecutor.execute(buildHistoryUrl(date), HistoricalPrice.class);
+            return extractHistoricalPrice(date, response);
         } catch (Exception e) {
-            log.error("Error getting historical price for timestamp {}: {}", timestamp, e.getMessage());
+            log.error("Error getting historical price for date {}: {}", date, e.getMessage());
             return null;
         }
     }
     
     /**
-     * 执行API请求并重试
+     * CoinGecko的历史价格API需要日期格式：dd-mm-yyyy，按UTC日期计算
      */
-    private <T> T executeWithRetry(String url, Class<T> responseType) {
-        Exception lastException = null;
+    private String formatHistoryDate(LocalDate day) {
+        return String.format("%02d-%02d-%d",
+                day.getDayOfMonth(),
+                day.getMonthValue(),
+                day.getYear());
+    }
+    
+    private String buildHistoryUrl(String date) {
+        return UriComponentsBuilder
+                .fromHttpUrl(aaveProperties.getCoingecko().getApiUrl())
+                .path("/coins/" + aaveProperties.getCoingecko().getTokenId() + "/history")
+                .queryParam("date", date)
+                .queryParam("localization", "false")
+                .toUriString();
+    }
+    
+    private BigDecimal extractHistoricalPrice(String date, HistoricalPrice response) {
+        if (response != null && response.getMarketData() != null 
+                && response.getMarketData().getCurrentPrice() != null) {
+            BigDecimal price = response.getMarketData().getCurrentPrice().get("usd");
+            log.debug("Historical AAVE price for {}: ${}", date, price);
+            return price;
+        }
         
-        for (int i = 0; i < MAX_RETRIES; i++) {
-            try {
-                T response = restTemplate.getForObject(url, responseType);
-                return response;
-            } catch (Exception e) {
-                lastException = e;
-                log.warn("API call failed (attempt {}/{}): {}", i + 1, MAX_RETRIES, e.getMessage());
-                
-                if (i < MAX_RETRIES - 1) {
-                    try {
-                        Thread.sleep(RETRY_DELAY_MS);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
-                }
-            }
+        log.warn("No historical price data found for date: {}", date);
+        return null;
+    }
+    
+    /**
+     * 获取时间区间内的历史价格序列
+     * 区间超过90天时CoinGecko返回每日（UTC 00:00）价格点，否则返回更细粒度的价格点
+     * @param from 起始时间（包含）
+     * @param to 结束时间（包含）
+     * @return 按时间升序的价格点；区间内没有数据时返回空列表
+     * @throws RuntimeException 请求失败（重试用尽或熔断）
+     */
+    public List<PricePoint> getPriceRange(Instant from, Instant to) {
+        String url = UriComponentsBuilder
+                .fromHttpUrl(aaveProperties.getCoingecko().getApiUrl())
+                .path("/coins/" + aaveProperties.getCoingecko().getTokenId() + "/market_chart/range")
+                .queryParam("vs_currency", "usd")
+                .queryParam("from", from.getEpochSecond())
+                .queryParam("to", to.getEpochSecond())
+                .toUriString();
+        
+        log.debug("Fetching AAVE price range from {} to {}", from, to);
+        MarketChart response = apiExecutor.execute(url, MarketChart.class);
+        
+        if (response == null || response.getPrices() == null) {
+            log.warn("No price range data found from {} to {}", from, to);
+            return Collections.emptyList();
         }
         
-        throw new RuntimeException("API call failed after " + MAX_RETRIES + " retries", lastException);
+        List<PricePoint> points = new ArrayList<>(response.getPrices().size());
+        for (List<BigDecimal> point : response.getPrices()) {
+            if (point.size() >= 2 && point.get(0) != null && point.get(1) != null) {
+                points.add(new PricePoint(point.get(0).longValue(), point.get(1)));
+            }
+        }
+        return points;
     }
     
     // Response DTOs
@@ -167,6 +190,22 @@ public class CoinGeckoApiClient {
         private MarketData marketData;
     }
     
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class MarketChart {
+        /**
+         * 价格点列表，每项为 [毫秒时间戳, 价格]
+         */
+        private List<List<BigDecimal>> prices;
+    }
+    
+    @Data
+    @AllArgsConstructor
+    public static class PricePoint {
+        private long timestampMillis;
+        private BigDecimal price;
+    }
+    
     @Data
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class MarketData {
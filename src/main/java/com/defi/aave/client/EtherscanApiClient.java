@@ -1,20 +1,29 @@
 package com.defi.aave.client;
 
 import com.defi.aave.config.AaveProperties;
+import com.defi.aave.model.Address;
+import com.defi.aave.model.TransferRecord;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
  * Etherscan API客户端
@@ -24,117 +33,182 @@ import java.util.stream.Collectors;
 @Component
 public class EtherscanApiClient {
     
+    /**
+     * Etherscan分页查询的上限：page × offset ≤ 10000
+     */
+    public static final int MAX_RESULT_WINDOW = 10000;
+    
     @Autowired
     private AaveProperties aaveProperties;
     
     @Autowired
-    private RestTemplate restTemplate;
+    @Qualifier("etherscanApiExecutor")
+    private ResilientApiExecutor apiExecutor;
     
-    private static final int MAX_RETRIES = 3;
-    private static final long RETRY_DELAY_MS = 1000;
     
     /**
      * 获取指定地址的AAVE代币余额
+     * 限流由请求执行器重试，重试用尽或Etherscan返回错误时抛出异常，不会以0代替
+     * @throws RuntimeException 请求失败或Etherscan返回错误
      */
-    public BigDecimal getTokenBalance(String address) {
-        try {
-            String url = buildUrl("account", "tokenbalance")
-                    .queryParam("contractaddress", aaveProperties.getToken().getContractAddress())
-                    .queryParam("address", address)
-                    .queryParam("tag", "latest")
-                    .toUriString();
-            
-            log.debug("Fetching token balance for address: {}", address);
-            TokenBalanceResponse response = executeWithRetry(url, TokenBalanceResponse.class);
-            
-            if ("1".equals(response.getStatus()) && response.getResult() != null) {
-                // AAVE has 18 decimals, convert from wei
-                BigInteger balance = new BigInteger(response.getResult());
-                return new BigDecimal(balance).divide(new BigDecimal("1000000000000000000"));
-            }
-            
-            log.warn("Failed to get token balance for {}: {}", address, response.getMessage());
-            return BigDecimal.ZERO;
-        } catch (Exception e) {
-            log.error("Error getting token balance for address {}: {}", address, e.getMessage());
-            return BigDecimal.ZERO;
-        }
+    public BigDecimal getTokenBalance(Address address) {
+        String url = buildTokenBalanceUrl(address);
+        
+        log.debug("Fetching token balance for address: {}", address);
+        TokenBalanceResponse response = apiExecutor.execute(url, TokenBalanceResponse.class);
+        return toBalance(address, response);
     }
     
     /**
-     * 获取地址的代币交易历史
+     * 非阻塞获取指定地址的AAVE代币余额
+     * 请求失败或Etherscan返回错误时以错误信号结束
      */
-    public List<TokenTransaction> getTokenTransactions(String address) {
-        try {
-            String url = buildUrl("account", "tokentx")
-                    .queryParam("contractaddress", aaveProperties.getToken().getContractAddress())
-                    .queryParam("address", address)
-                    .queryParam("page", "1")
-                    .queryParam("offset", "100")
-                    .queryParam("sort", "asc")
-                    .toUriString();
-            
-            log.debug("Fetching token transactions for address: {}", address);
-            TokenTransactionResponse response = executeWithRetry(url, TokenTransactionResponse.class);
-            
-            if ("1".equals(response.getStatus()) && response.getResult() != null) {
-                return response.getResult();
-            }
-            
-            log.warn("No transactions found for address: {}", address);
-            return Collections.emptyList();
-        } catch (Exception e) {
-            log.error("Error getting token transactions for address {}: {}", address, e.getMessage());
-            return Collections.emptyList();
-        }
+    public Mono<BigDecimal> getTokenBalanceAsync(Address address) {
+        String url = buildTokenBalanceUrl(address);
+        return apiExecutor.executeAsync(url, TokenBalanceResponse.class)
+                .map(response -> toBalance(address, response));
     }
     
     /**
-     * 获取首次接收AAVE的交易
+     * 非阻塞获取地址从startBlock开始的第page页代币交易历史（按区块升序，page从1开始）
+     * 请求失败时以错误信号结束，无交易时返回空列表
      */
-    public TokenTransaction getFirstIncomingTransaction(String address) {
-        List<TokenTransaction> transactions = getTokenTransactions(address);
-        
+    public Mono<List<TokenTransaction>> getTokenTransactionsAsync(Address address, long startBlock,
+                                                                  int page, int pageSize) {
+        String url = buildTokenTransactionsUrl(address, startBlock, page, pageSize);
+        return apiExecutor.executeAsync(url, TokenTransactionResponse.class)
+                .map(response -> {
+                    if ("1".equals(response.getStatus()) && response.getResult() != null) {
+                        return response.getResult();
+                    }
+                    if ("No transactions found".equals(response.getMessage())) {
+                        return Collections.<TokenTransaction>emptyList();
+                    }
+                    throw new IllegalStateException("Failed to get token transactions for " + address
+                            + ": " + response.getMessage() + " " + response.getResultText());
+                });
+    }
+    
+    /**
+     * 非阻塞获取首次接收AAVE的交易，未找到时返回空
+     * 按区块区间逐页向后翻阅交易历史，找到后即停止，内存中只保留当前一页
+     */
+    public Mono<TokenTransaction> getFirstIncomingTransactionAsync(Address address) {
+        return findFirstIncomingFrom(address, aaveProperties.getSync().getStartBlock(), 1, 1);
+    }
+    
+    /**
+     * @param page 从startBlock开始的页码，仅在整页都落在startBlock内时递增
+     * @param pageNumber 已请求的总页数
+     */
+    private Mono<TokenTransaction> findFirstIncomingFrom(Address address, long startBlock, int page, int pageNumber) {
+        int pageSize = aaveProperties.getSync().getHistoryPageSize();
+        return getTokenTransactionsAsync(address, startBlock, page, pageSize)
+                .flatMap(transactions -> {
+                    TokenTransaction first = findFirstIncoming(address, transactions);
+                    if (first != null) {
+                        return Mono.just(first);
+                    }
+                    if (transactions.size() < pageSize) {
+                        return Mono.empty();
+                    }
+                    if (pageNumber >= aaveProperties.getSync().getMaxHistoryPages()) {
+                        log.warn("No incoming transfer for {} within {} history pages", address, pageNumber);
+                        return Mono.empty();
+                    }
+                    // 同一区块的交易可能跨页，下一页从本页最后一个区块的第一页重新开始；
+                    // 整页都在startBlock内时该区块还有后续交易，在同一起始区块下翻到下一页
+                    long lastBlock = Long.parseLong(transactions.get(transactions.size() - 1).getBlockNumber());
+                    if (lastBlock > startBlock) {
+                        return findFirstIncomingFrom(address, lastBlock, 1, pageNumber + 1);
+                    }
+                    if ((long) (page + 1) * pageSize > MAX_RESULT_WINDOW) {
+                        log.warn("Block {} of {} exceeds the {} result window, skipping the rest of it",
+                                startBlock, address, MAX_RESULT_WINDOW);
+                        return findFirstIncomingFrom(address, startBlock + 1, 1, pageNumber + 1);
+                    }
+                    return findFirstIncomingFrom(address, startBlock, page + 1, pageNumber + 1);
+                });
+    }
+    
+    private TokenTransaction findFirstIncoming(Address address, List<TokenTransaction> transactions) {
         return transactions.stream()
-                .filter(tx -> tx.getTo().equalsIgnoreCase(address))
+                .filter(tx -> address.equals(tx.getTo()))
                 .filter(tx -> new BigInteger(tx.getValue()).compareTo(BigInteger.ZERO) > 0)
                 .findFirst()
                 .orElse(null);
     }
     
     /**
-     * 获取所有持有AAVE的地址（通过交易历史间接获取）
-     * 注意：由于Etherscan API限制，这个方法只能获取部分地址
-     * 实际应用中可能需要使用其他数据源或批量处理
+     * 流式获取AAVE合约从指定区块开始的转账记录（按区块号升序），逐条交给consumer
+     * 响应体按token流式解析为紧凑的TransferRecord，整页解析成功后才交给consumer，重试不会重复投递
+     * Etherscan最多返回 page × offset ≤ 10000 条，调用方应以返回的最后区块号继续向后翻页
+     * @param startBlock 起始区块号（包含）
+     * @param offset 本次返回的最大条数
+     * @return 本页的记录数
+     */
+    public int streamTokenTransfers(long startBlock, int offset, Consumer<TransferRecord> consumer) {
+        return streamTokenTransfers(startBlock, 99999999L, 1, offset, consumer);
+    }
+    
+    /**
+     * 流式获取AAVE合约在 [startBlock, endBlock] 区块范围内的第page页转账记录（按区块号升序，page从1开始）
+     * 用于在转账数超过一页的单个区块内继续翻页，page × offset 不能超过 MAX_RESULT_WINDOW
+     * @return 本页的记录数
      */
-    public List<String> getTopHolders() {
-        log.warn("Etherscan API does not directly support getting all token holders. " +
-                "This method returns a limited sample from recent transactions.");
+    public int streamTokenTransfers(long startBlock, long endBlock, int page, int offset,
+                                    Consumer<TransferRecord> consumer) {
+        String url = buildUrl("account", "tokentx")
+                .queryParam("contractaddress", aaveProperties.getToken().getContractAddress())
+                .queryParam("startblock", startBlock)
+                .queryParam("endblock", endBlock)
+                .queryParam("page", page)
+                .queryParam("offset", offset)
+                .queryParam("sort", "asc")
+                .toUriString();
         
-        try {
-            // 获取最近的代币转账记录
-            String url = buildUrl("account", "tokentx")
-                    .queryParam("contractaddress", aaveProperties.getToken().getContractAddress())
-                    .queryParam("page", "1")
-                    .queryParam("offset", "1000")
-                    .queryParam("sort", "desc")
-                    .toUriString();
-            
-            TokenTransactionResponse response = executeWithRetry(url, TokenTransactionResponse.class);
-            
-            if ("1".equals(response.getStatus()) && response.getResult() != null) {
-                // 提取所有接收地址（去重）
-                return response.getResult().stream()
-                        .map(TokenTransaction::getTo)
-                        .distinct()
-                        .collect(Collectors.toList());
-            }
-            
-            return Collections.emptyList();
-        } catch (Exception e) {
-            log.error("Error getting top holders: {}", e.getMessage());
-            return Collections.emptyList();
+        log.debug("Fetching token transfers from block {} (page {})", startBlock, page);
+        TokenTransferStreamParser.Page result = apiExecutor.execute(url,
+                response -> TokenTransferStreamParser.parse(response.getBody()));
+        
+        if (!"1".equals(result.getStatus()) && !"No transactions found".equals(result.getMessage())) {
+            throw new IllegalStateException("Failed to get token transfers from block " + startBlock
+                    + ": " + result.getMessage() + " " + result.getResultText());
         }
+        result.getRecords().forEach(consumer);
+        return result.getRecords().size();
+    }
+    
+    private String buildTokenBalanceUrl(Address address) {
+        return buildUrl("account", "tokenbalance")
+                .queryParam("contractaddress", aaveProperties.getToken().getContractAddress())
+                .queryParam("address", address)
+                .queryParam("tag", "latest")
+                .toUriString();
+    }
+    
+    private String buildTokenTransactionsUrl(Address address, long startBlock, int page, int pageSize) {
+        return buildUrl("account", "tokentx")
+                .queryParam("contractaddress", aaveProperties.getToken().getContractAddress())
+                .queryParam("address", address)
+                .queryParam("startblock", startBlock)
+                .queryParam("endblock", "99999999")
+                .queryParam("page", page)
+                .queryParam("offset", pageSize)
+                .queryParam("sort", "asc")
+                .toUriString();
+    }
+    
+    /**
+     * AAVE有18位小数，将最小单位余额转换为代币数量
+     * @throws IllegalStateException Etherscan返回错误
+     */
+    private BigDecimal toBalance(Address address, TokenBalanceResponse response) {
+        if (!"1".equals(response.getStatus()) || response.getResult() == null) {
+            throw new IllegalStateException("Failed to get token balance for " + address
+                    + ": " + response.getMessage() + " " + response.getResult());
+        }
+        return new BigDecimal(new BigInteger(response.getResult()), 18);
     }
     
     /**
@@ -147,50 +221,46 @@ public class EtherscanApiClient {
                 .queryParam("apikey", aaveProperties.getEtherscan().getApiKey());
     }
     
-    /**
-     * 执行API请求并重试
-     */
-    private <T> T executeWithRetry(String url, Class<T> responseType) {
-        Exception lastException = null;
-        
-        for (int i = 0; i < MAX_RETRIES; i++) {
-            try {
-                T response = restTemplate.getForObject(url, responseType);
-                return response;
-            } catch (Exception e) {
-                lastException = e;
-                log.warn("API call failed (attempt {}/{}): {}", i + 1, MAX_RETRIES, e.getMessage());
-                
-                if (i < MAX_RETRIES - 1) {
-                    try {
-                        Thread.sleep(RETRY_DELAY_MS);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
-                }
-            }
-        }
-        
-        throw new RuntimeException("API call failed after " + MAX_RETRIES + " retries", lastException);
-    }
-    
     // Response DTOs
     
     @Data
     @JsonIgnoreProperties(ignoreUnknown = true)
-    public static class TokenBalanceResponse {
+    public static class TokenBalanceResponse implements EtherscanResponse {
         private String status;
         private String message;
         private String result;
+        
+        @Override
+        public String getResultText() {
+            return result;
+        }
     }
     
+    /**
+     * 正常时result为交易数组，出错（包括限流）时为字符串，分别存入result和resultText
+     */
     @Data
     @JsonIgnoreProperties(ignoreUnknown = true)
-    public static class TokenTransactionResponse {
+    public static class TokenTransactionResponse implements EtherscanResponse {
+        private static final ObjectMapper RESULT_MAPPER = new ObjectMapper();
+        private static final TypeReference<List<TokenTransaction>> RESULT_TYPE =
+                new TypeReference<List<TokenTransaction>>() { };
+        
         private String status;
         private String message;
+        @Setter(AccessLevel.NONE)
         private List<TokenTransaction> result;
+        @Setter(AccessLevel.NONE)
+        private String resultText;
+        
+        @JsonSetter("result")
+        public void setResult(JsonNode node) {
+            if (node.isArray()) {
+                result = RESULT_MAPPER.convertValue(node, RESULT_TYPE);
+            } else if (!node.isNull()) {
+                resultText = node.asText();
+            }
+        }
     }
     
     @Data
@@ -199,8 +269,8 @@ public class EtherscanApiClient {
         private String blockNumber;
         private String timeStamp;
         private String hash;
-        private String from;
-        private String to;
+        private Address from;
+        private Address to;
         private String value;
         private String tokenName;
         private String tokenSymbol;
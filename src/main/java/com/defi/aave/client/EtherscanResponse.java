@@ -0,0 +1,28 @@
+package com.defi.aave.client;
+
+import java.util.Locale;
+
+/**
+ * Etherscan响应的公共字段
+ */
+public interface EtherscanResponse {
+    
+    String getStatus();
+    
+    String getMessage();
+    
+    /**
+     * result为字符串时的内容，出错时Etherscan在此返回错误描述
+     */
+    String getResultText();
+    
+    /**
+     * Etherscan限流时仍返回HTTP 200，以status为0、result为"Max rate limit reached"、
+     * "Max calls per sec rate limit reached (5/sec)"等文字表示
+     */
+    default boolean isRateLimited() {
+        String resultText = getResultText();
+        return "0".equals(getStatus()) && resultText != null
+                && resultText.toLowerCase(Locale.ROOT).contains("rate limit");
+    }
+}
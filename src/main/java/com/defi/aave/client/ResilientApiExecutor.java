@@ -0,0 +1,248 @@
+package com.defi.aave.client;
+
+import com.defi.aave.config.AaveProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 外部API请求执行器
+ * 每个API提供方一个实例，阻塞与非阻塞调用共用同一套限流、重试和熔断策略：
+ * 只重试HTTP 429（及由throttledResponse识别的限流响应体）、5xx和网络错误，退避时间按指数增长并加入随机抖动，避免各工作线程同步重试；
+ * 服务端错误或网络错误连续达到阈值后熔断，熔断期间直接失败而不再请求
+ */
+@Slf4j
+public class ResilientApiExecutor {
+    
+    private static final int TOO_MANY_REQUESTS = 429;
+    
+    private final String provider;
+    private final RestTemplate restTemplate;
+    private final WebClient webClient;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final Predicate<Object> throttledResponse;
+    private final CircuitBreaker circuitBreaker;
+    private final Counter retryCounter;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    
+    public ResilientApiExecutor(String provider, RestTemplate restTemplate, WebClient webClient,
+                                TokenBucketRateLimiter rateLimiter, AaveProperties.Resilience resilience,
+                                MeterRegistry meterRegistry) {
+        this(provider, restTemplate, webClient, rateLimiter, resilience, meterRegistry, response -> false);
+    }
+    
+    /**
+     * @param throttledResponse 判断成功响应是否实际表示限流（API以HTTP 200返回限流错误时使用）
+     */
+    public ResilientApiExecutor(String provider, RestTemplate restTemplate, WebClient webClient,
+                                TokenBucketRateLimiter rateLimiter, AaveProperties.Resilience resilience,
+                                MeterRegistry meterRegistry, Predicate<Object> throttledResponse) {
+        this.provider = provider;
+        this.restTemplate = restTemplate;
+        this.webClient = webClient;
+        this.rateLimiter = rateLimiter;
+        this.throttledResponse = throttledResponse;
+        this.maxAttempts = Math.max(1, resilience.getMaxAttempts());
+        this.initialBackoffMs = resilience.getInitialBackoffMs();
+        this.maxBackoffMs = resilience.getMaxBackoffMs();
+        this.circuitBreaker = new CircuitBreaker(provider, resilience.getFailureThreshold(),
+                Duration.ofMillis(resilience.getOpenDurationMs()), meterRegistry);
+        this.retryCounter = Counter.builder("aave.api.retries")
+                .description("Retried API calls")
+                .tag("provider", provider)
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 阻塞执行GET请求
+     * @throws CircuitBreakerOpenException 熔断期间
+     * @throws RuntimeException 不可重试的错误或重试次数用尽
+     */
+    public <T> T execute(String url, Class<T> responseType) {
+        return executeBlocking(() -> restTemplate.getForObject(url, responseType));
+    }
+    
+    /**
+     * 阻塞执行GET请求，由extractor直接读取响应流（用于大响应的流式解析）
+     * 重试时会以新的响应再次调用extractor
+     */
+    public <T> T execute(String url, ResponseExtractor<T> extractor) {
+        return executeBlocking(() -> restTemplate.execute(url, HttpMethod.GET, null, extractor));
+    }
+    
+    private <T> T executeBlocking(Supplier<T> request) {
+        RuntimeException lastException = null;
+        int attempt = 0;
+        
+        while (++attempt <= maxAttempts) {
+            circuitBreaker.acquirePermission();
+            rateLimiter.acquire();
+            try {
+                T response = request.get();
+                checkThrottled(response);
+                onSuccess();
+                return response;
+            } catch (RuntimeException e) {
+                lastException = e;
+                onError(e);
+                if (!isRetryable(e) || attempt == maxAttempts) {
+                    break;
+                }
+            }
+            
+            long delayMs = backoffMillis(attempt, lastException);
+            log.warn("{} API call failed (attempt {}/{}), retrying in {}ms: {}",
+                    provider, attempt, maxAttempts, delayMs, lastException.getMessage());
+            retryCounter.increment();
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        
+        throw failedAfter(Math.min(attempt, maxAttempts), lastException);
+    }
+    
+    /**
+     * 非阻塞执行GET请求
+     * 许可获取、请求和退避等待均不阻塞线程，失败信号与阻塞版本抛出的异常一致
+     */
+    public <T> Mono<T> executeAsync(String url, Class<T> responseType) {
+        return Mono.defer(() -> {
+                    circuitBreaker.acquirePermission();
+                    return rateLimiter.acquireAsync()
+                            .then(Mono.defer(() -> webClient.get()
+                                    .uri(URI.create(url))
+                                    .retrieve()
+                                    .bodyToMono(responseType)))
+                            .doOnNext(this::checkThrottled)
+                            .doOnSuccess(response -> onSuccess())
+                            .doOnError(this::onError)
+                            .doOnCancel(circuitBreaker::onIgnored);
+                })
+                .retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+                    Throwable failure = signal.failure();
+                    int attempt = (int) signal.totalRetries() + 1;
+                    if (!isRetryable(failure) || attempt >= maxAttempts) {
+                        return Mono.error(failure instanceof CircuitBreakerOpenException
+                                ? failure : failedAfter(attempt, failure));
+                    }
+                    long delayMs = backoffMillis(attempt, failure);
+                    log.warn("{} async API call failed (attempt {}/{}), retrying in {}ms: {}",
+                            provider, attempt, maxAttempts, delayMs, failure.getMessage());
+                    retryCounter.increment();
+                    return Mono.delay(Duration.ofMillis(delayMs));
+                })));
+    }
+    
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+    
+    private void onSuccess() {
+        rateLimiter.onSuccess();
+        circuitBreaker.onSuccess();
+    }
+    
+    private void checkThrottled(Object response) {
+        if (response != null && throttledResponse.test(response)) {
+            throw new ApiThrottledException(provider);
+        }
+    }
+    
+    private void onError(Throwable e) {
+        if (isThrottled(e)) {
+            rateLimiter.onThrottled(TokenBucketRateLimiter.parseRetryAfter(headersOf(e)));
+            circuitBreaker.onIgnored();
+        } else if (statusOf(e) >= 500 || isTransportError(e)) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onIgnored();
+        }
+    }
+    
+    /**
+     * 指数退避加全抖动：在 [0, min(上限, 初始值 × 2^(attempt-1))] 内随机取值
+     * 限流由限流器在Retry-After期间暂停发放许可，无需额外等待
+     */
+    private long backoffMillis(int attempt, Throwable failure) {
+        if (isThrottled(failure)) {
+            return 0;
+        }
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 30));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+    
+    private RuntimeException failedAfter(int attempts, Throwable cause) {
+        return new RuntimeException(provider + " API call failed after " + attempts + " attempt(s)", cause);
+    }
+    
+    private static boolean isRetryable(Throwable e) {
+        return isThrottled(e) || statusOf(e) >= 500 || isTransportError(e);
+    }
+    
+    private static boolean isThrottled(Throwable e) {
+        return e instanceof ApiThrottledException || statusOf(e) == TOO_MANY_REQUESTS;
+    }
+    
+    /**
+     * 连接失败、超时、连接中断等网络错误（响应解析失败不算在内）
+     */
+    private static boolean isTransportError(Throwable e) {
+        boolean ioError = false;
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof JsonProcessingException) {
+                return false;
+            }
+            if (cause instanceof IOException || cause instanceof TimeoutException
+                    || cause instanceof io.netty.handler.timeout.TimeoutException) {
+                ioError = true;
+            }
+        }
+        return ioError || e instanceof ResourceAccessException || e instanceof WebClientRequestException;
+    }
+    
+    private static int statusOf(Throwable e) {
+        if (e instanceof RestClientResponseException) {
+            return ((RestClientResponseException) e).getRawStatusCode();
+        }
+        if (e instanceof WebClientResponseException) {
+            return ((WebClientResponseException) e).getRawStatusCode();
+        }
+        return -1;
+    }
+    
+    private static HttpHeaders headersOf(Throwable e) {
+        if (e instanceof RestClientResponseException) {
+            return ((RestClientResponseException) e).getResponseHeaders();
+        }
+        if (e instanceof WebClientResponseException) {
+            return ((WebClientResponseException) e).getHeaders();
+        }
+        return null;
+    }
+}
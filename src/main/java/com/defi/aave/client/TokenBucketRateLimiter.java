@@ -0,0 +1,183 @@
+package com.defi.aave.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌桶限流器
+ * 每个外部API提供方一个实例，按配置速率补充令牌，允许短时突发
+ * 收到HTTP 429或限流响应时按乘性递减降低速率并暂停发放，请求成功后按加性递增逐步恢复到配置速率
+ */
+@Slf4j
+public class TokenBucketRateLimiter {
+    
+    /**
+     * 限流后的速率下限（相对配置速率的比例）
+     */
+    private static final double MIN_RATE_FACTOR = 0.1;
+    
+    /**
+     * 每次成功请求恢复的速率（相对配置速率的比例）
+     */
+    private static final double RECOVERY_FACTOR = 0.02;
+    
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    
+    private final String provider;
+    private final double maxRate;
+    private final double capacity;
+    private final Timer waitTimer;
+    
+    private double rate;
+    private double tokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+    
+    public TokenBucketRateLimiter(String provider, double permitsPerSecond, int burst, MeterRegistry meterRegistry) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive for provider " + provider);
+        }
+        this.provider = provider;
+        this.maxRate = permitsPerSecond;
+        this.capacity = Math.max(1, burst);
+        this.rate = permitsPerSecond;
+        this.tokens = this.capacity;
+        this.lastRefillNanos = System.nanoTime();
+        this.pausedUntilNanos = this.lastRefillNanos;
+        
+        this.waitTimer = Timer.builder("aave.api.ratelimit.wait")
+                .description("Time spent waiting for an API rate limit permit")
+                .tag("provider", provider)
+                .register(meterRegistry);
+        Gauge.builder("aave.api.ratelimit.rate", this, TokenBucketRateLimiter::getRate)
+                .description("Current permitted requests per second")
+                .tag("provider", provider)
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 非阻塞获取许可
+     * @return 0表示已获得许可；否则为下一个许可可用前需等待的纳秒数（未消耗令牌）
+     */
+    public synchronized long tryAcquire() {
+        long now = System.nanoTime();
+        refill(now);
+        
+        if (now < pausedUntilNanos) {
+            return pausedUntilNanos - now;
+        }
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / rate * NANOS_PER_SECOND);
+    }
+    
+    /**
+     * 阻塞获取许可，等待时间计入aave.api.ratelimit.wait指标
+     */
+    public void acquire() {
+        long start = System.nanoTime();
+        long waitNanos;
+        while ((waitNanos = tryAcquire()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for " + provider + " rate limit permit", e);
+            }
+        }
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * 非阻塞方式获取许可：许可不可用时通过定时器延迟后重试，不占用线程
+     * 等待时间同样计入aave.api.ratelimit.wait指标
+     */
+    public Mono<Void> acquireAsync() {
+        return Mono.defer(() -> acquireAsync(System.nanoTime()));
+    }
+    
+    private Mono<Void> acquireAsync(long startNanos) {
+        return Mono.defer(() -> {
+            long waitNanos = tryAcquire();
+            if (waitNanos == 0) {
+                waitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                return Mono.empty();
+            }
+            return Mono.delay(Duration.ofNanos(waitNanos)).then(acquireAsync(startNanos));
+        });
+    }
+    
+    /**
+     * 请求成功，逐步恢复速率
+     */
+    public synchronized void onSuccess() {
+        if (rate < maxRate) {
+            refill(System.nanoTime());
+            rate = Math.min(maxRate, rate + maxRate * RECOVERY_FACTOR);
+        }
+    }
+    
+    /**
+     * 请求被限流（HTTP 429或限流响应体），降低速率并在Retry-After期间暂停发放许可
+     * @param retryAfter 服务端要求的等待时间，可为null
+     */
+    public synchronized void onThrottled(Duration retryAfter) {
+        long now = System.nanoTime();
+        refill(now);
+        
+        rate = Math.max(maxRate * MIN_RATE_FACTOR, rate / 2);
+        tokens = 0;
+        long pauseNanos = retryAfter != null ? retryAfter.toNanos() : (long) (NANOS_PER_SECOND / rate);
+        pausedUntilNanos = Math.max(pausedUntilNanos, now + pauseNanos);
+        
+        log.warn("{} API throttled, reducing rate to {}/s and pausing {}ms",
+                provider, String.format("%.2f", rate), TimeUnit.NANOSECONDS.toMillis(pauseNanos));
+    }
+    
+    /**
+     * 解析Retry-After响应头，支持秒数和HTTP日期两种格式
+     * @return 无法解析时返回null
+     */
+    public static Duration parseRetryAfter(HttpHeaders headers) {
+        String value = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                Duration delay = Duration.between(Instant.now(),
+                        ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+                return delay.isNegative() ? Duration.ZERO : delay;
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+    
+    public synchronized double getRate() {
+        return rate;
+    }
+    
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * rate / NANOS_PER_SECOND);
+            lastRefillNanos = now;
+        }
+    }
+}
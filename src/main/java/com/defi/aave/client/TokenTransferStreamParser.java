@@ -0,0 +1,155 @@
+package com.defi.aave.client;
+
+import com.defi.aave.model.Address;
+import com.defi.aave.model.Hex;
+import com.defi.aave.model.TransferRecord;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Etherscan tokentx响应的流式解析器
+ * 逐个token读取result数组，直接从解析器的字符缓冲区解析出TransferRecord，
+ * 不创建TokenTransaction等中间对象，未使用的字段直接跳过
+ */
+public final class TokenTransferStreamParser {
+    
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    
+    private TokenTransferStreamParser() {
+    }
+    
+    /**
+     * 解析tokentx响应
+     * result不是数组（如Etherscan以字符串返回错误信息）时，records为空列表，字符串内容存入resultText
+     */
+    public static Page parse(InputStream body) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected tokentx response object");
+            }
+            
+            String status = null;
+            String message = null;
+            String resultText = null;
+            List<TransferRecord> records = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("status".equals(field)) {
+                    status = parser.getValueAsString();
+                } else if ("message".equals(field)) {
+                    message = parser.getValueAsString();
+                } else if ("result".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        records.add(readRecord(parser));
+                    }
+                } else if ("result".equals(field) && value == JsonToken.VALUE_STRING) {
+                    resultText = parser.getValueAsString();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return new Page(status, message, resultText, records);
+        }
+    }
+    
+    private static TransferRecord readRecord(JsonParser parser) throws IOException {
+        long blockNumber = -1;
+        long timestamp = -1;
+        byte[] hash = null;
+        Address from = null;
+        Address to = null;
+        BigInteger value = null;
+        
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "blockNumber":
+                    blockNumber = readLong(parser);
+                    break;
+                case "timeStamp":
+                    timestamp = readLong(parser);
+                    break;
+                case "hash":
+                    hash = readHex(parser, TransferRecord.HASH_LENGTH);
+                    break;
+                case "from":
+                    from = readAddress(parser);
+                    break;
+                case "to":
+                    to = readAddress(parser);
+                    break;
+                case "value":
+                    value = new BigInteger(parser.getText());
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        
+        if (blockNumber < 0 || timestamp < 0 || hash == null || from == null || to == null || value == null) {
+            throw new JsonParseException(parser, "Incomplete tokentx record");
+        }
+        return new TransferRecord(blockNumber, timestamp, hash, from, to, value);
+    }
+    
+    /**
+     * 从字符缓冲区解析非负十进制整数（Etherscan以字符串返回数字字段）
+     */
+    private static long readLong(JsonParser parser) throws IOException {
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        if (length == 0 || length > 18) {
+            throw new JsonParseException(parser, "Invalid number: " + parser.getText());
+        }
+        long result = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new JsonParseException(parser, "Invalid number: " + parser.getText());
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+    
+    private static byte[] readHex(JsonParser parser, int byteLength) throws IOException {
+        try {
+            return Hex.decode(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength(), byteLength);
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException(parser, e.getMessage());
+        }
+    }
+    
+    private static Address readAddress(JsonParser parser) throws IOException {
+        try {
+            return Address.of(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException(parser, e.getMessage());
+        }
+    }
+    
+    /**
+     * 一页tokentx响应
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Page implements EtherscanResponse {
+        private final String status;
+        private final String message;
+        private final String resultText;
+        private final List<TransferRecord> records;
+    }
+}
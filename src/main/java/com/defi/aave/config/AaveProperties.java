@@ -3,6 +3,9 @@ package com.defi.aave.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
 
 /**
  * AAVE相关配置属性
@@ -17,11 +20,57 @@ public class AaveProperties {
     private Coingecko coingecko = new Coingecko();
     private Sync sync = new Sync();
     private Cache cache = new Cache();
+    private Refresh refresh = new Refresh();
+    private Resilience resilience = new Resilience();
+    private CostBasis costBasis = new CostBasis();
     
     @Data
     public static class Etherscan {
         private String apiKey;
         private String baseUrl;
+        
+        /**
+         * 每秒请求数上限（令牌补充速率）
+         */
+        private Double requestsPerSecond = 5.0;
+        
+        /**
+         * 令牌桶容量，允许的突发请求数
+         */
+        private Integer burst = 5;
+        
+        private Http http = new Http();
+    }
+    
+    /**
+     * 外部API的HTTP连接配置
+     */
+    @Data
+    public static class Http {
+        /**
+         * 连接超时（毫秒）
+         */
+        private Integer connectTimeoutMs = 5000;
+        
+        /**
+         * 读取超时（毫秒）
+         */
+        private Integer readTimeoutMs = 30000;
+        
+        /**
+         * 连接池最大空闲连接数
+         */
+        private Integer maxIdleConnections = 16;
+        
+        /**
+         * 空闲连接保持时间（秒）
+         */
+        private Integer keepAliveSeconds = 300;
+        
+        /**
+         * 非阻塞客户端的最大连接数
+         */
+        private Integer maxConnections = 50;
     }
     
     @Data
@@ -34,15 +83,155 @@ public class AaveProperties {
     public static class Coingecko {
         private String apiUrl;
         private String tokenId;
+        
+        /**
+         * 每秒请求数上限（令牌补充速率）
+         */
+        private Double requestsPerSecond = 0.5;
+        
+        /**
+         * 令牌桶容量，允许的突发请求数
+         */
+        private Integer burst = 3;
+        
+        /**
+         * 历史价格回填的起始日期（UTC）
+         */
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        private LocalDate historyStartDate = LocalDate.of(2020, 10, 3);
+        
+        /**
+         * 每次区间请求覆盖的天数（超过90天时CoinGecko返回日粒度数据）
+         */
+        private Integer rangeDays = 365;
+        
+        private Http http = new Http();
     }
     
     @Data
     public static class Sync {
         private Integer batchSize;
+        
+        /**
+         * 并发处理持有者的工作线程数
+         */
+        private Integer workerThreads = 8;
+        
+        /**
+         * 转账记录增量同步的起始区块号（AAVE合约部署区块）
+         */
+        private Long startBlock = 10926829L;
+        
+        /**
+         * 每页拉取的转账记录数（Etherscan上限10000）
+         */
+        private Integer transferPageSize = 1000;
+        
+        /**
+         * 每次同步最多拉取的转账记录页数
+         */
+        private Integer maxTransferPages = 10;
+        
+        /**
+         * 每次同步抽样核对账本余额的地址数（调用Etherscan tokenbalance），0表示不核对
+         */
+        private Integer balanceSpotChecks = 3;
+        
+        /**
+         * 查询单个地址交易历史时每页的记录数
+         */
+        private Integer historyPageSize = 100;
+        
+        /**
+         * 查找单个地址首次接收交易时最多翻阅的页数
+         */
+        private Integer maxHistoryPages = 50;
+    }
+    
+    @Data
+    public static class Refresh {
+        /**
+         * 是否启用定时增量刷新
+         */
+        private Boolean enabled = true;
+        
+        /**
+         * 刷新间隔（毫秒）
+         */
+        private Long intervalMs = 60000L;
+        
+        /**
+         * 每分钟用于刷新的Etherscan API调用预算
+         */
+        private Integer apiBudgetPerMinute = 60;
+    }
+    
+    /**
+     * 外部API调用的重试与熔断配置，各提供方分别计数
+     */
+    @Data
+    public static class Resilience {
+        /**
+         * 单次调用的最大尝试次数（含首次请求）
+         */
+        private Integer maxAttempts = 3;
+        
+        /**
+         * 首次重试的退避上限（毫秒），之后每次翻倍，实际等待在0到上限之间随机取值
+         */
+        private Long initialBackoffMs = 500L;
+        
+        /**
+         * 退避时间上限（毫秒）
+         */
+        private Long maxBackoffMs = 10000L;
+        
+        /**
+         * 连续多少次服务端错误或网络错误后熔断
+         */
+        private Integer failureThreshold = 5;
+        
+        /**
+         * 熔断持续时间（毫秒），到期后放行一个试探请求
+         */
+        private Long openDurationMs = 30000L;
     }
     
     @Data
     public static class Cache {
         private Integer priceTtl;
+        
+        /**
+         * 历史价格内存缓存的最大日期数
+         */
+        private Integer historicalPriceMaxSize = 5000;
+        
+        /**
+         * 持有者列表查询结果缓存的最大条目数
+         */
+        private Integer holderPageMaxSize = 1000;
+        
+        /**
+         * 持有者详情缓存的最大地址数
+         */
+        private Integer holderMaxSize = 10000;
+        
+        /**
+         * 持有者详情缓存时间(秒)
+         */
+        private Integer holderTtl = 600;
+    }
+    
+    @Data
+    public static class CostBasis {
+        /**
+         * 持仓成本计算方法：FIFO（先进先出）或AVERAGE（移动平均）
+         */
+        private String method = "FIFO";
+        
+        /**
+         * 同步结束后是否按完整转账记录重新计算余额变化地址的持仓成本
+         */
+        private Boolean recomputeAfterSync = true;
     }
 }
@@ -1,13 +1,20 @@
 package com.defi.aave.config;
 
+import com.defi.aave.dto.HolderDto;
+import com.defi.aave.dto.PageDto;
+import com.defi.aave.model.Address;
+import com.defi.aave.service.AaveHolderService;
+import com.defi.aave.service.SyncJobService;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -19,6 +26,9 @@ public class CacheConfig {
     @Autowired
     private AaveProperties aaveProperties;
     
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
     /**
      * 价格缓存配置
      * 用于缓存AAVE当前价格，减少API调用
@@ -32,10 +42,50 @@ public class CacheConfig {
     }
     
     /**
-     * RestTemplate Bean
+     * 历史价格缓存配置
+     * 按UTC日期缓存AAVE历史价格，历史价格不会变化，因此不设置过期时间
      */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public Cache<LocalDate, BigDecimal> historicalPriceCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(aaveProperties.getCache().getHistoricalPriceMaxSize())
+                .build();
+    }
+    
+    /**
+     * 持有者列表查询结果缓存配置
+     * 键中包含数据版本号，同步写入后自动失效，无需设置过期时间
+     */
+    @Bean
+    public Cache<AaveHolderService.HolderPageKey, PageDto<HolderDto>> holderPageCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(aaveProperties.getCache().getHolderPageMaxSize())
+                .build();
+    }
+    
+    /**
+     * 持有者详情缓存配置
+     * 按地址缓存单个持有者查询结果，同步写入时直接更新已缓存的地址；命中率等统计注册到actuator指标
+     */
+    @Bean
+    public Cache<Address, HolderDto> holderDtoCache() {
+        Cache<Address, HolderDto> cache = Caffeine.newBuilder()
+                .expireAfterWrite(aaveProperties.getCache().getHolderTtl(), TimeUnit.SECONDS)
+                .maximumSize(aaveProperties.getCache().getHolderMaxSize())
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "holderDto");
+    }
+    
+    /**
+     * 同步任务缓存配置
+     * 保留最近的同步任务供查询进度，过期后自动清除
+     */
+    @Bean
+    public Cache<String, SyncJobService.SyncJob> syncJobCache() {
+        return Caffeine.newBuilder()
+                .expireAfterWrite(24, TimeUnit.HOURS)
+                .maximumSize(100)
+                .build();
     }
 }
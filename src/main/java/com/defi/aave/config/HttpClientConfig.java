@@ -0,0 +1,100 @@
+package com.defi.aave.config;
+
+import io.netty.channel.ChannelOption;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.OkHttp3ClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP客户端配置
+ * 每个外部API提供方使用独立的OkHttp客户端：独立的keep-alive连接池、连接/读取超时，
+ * 支持HTTP/2，并由OkHttp自动协商gzip压缩；
+ * 非阻塞调用使用基于Reactor Netty的WebClient，同样按提供方使用独立连接池
+ */
+@Configuration
+public class HttpClientConfig {
+    
+    /**
+     * 非阻塞调用单个响应体的最大内存缓冲大小
+     */
+    private static final int MAX_RESPONSE_BYTES = 16 * 1024 * 1024;
+    
+    @Autowired
+    private AaveProperties aaveProperties;
+    
+    /**
+     * Etherscan API使用的RestTemplate
+     */
+    @Bean
+    public RestTemplate etherscanRestTemplate() {
+        return buildRestTemplate(aaveProperties.getEtherscan().getHttp());
+    }
+    
+    /**
+     * CoinGecko API使用的RestTemplate
+     */
+    @Bean
+    public RestTemplate coingeckoRestTemplate() {
+        return buildRestTemplate(aaveProperties.getCoingecko().getHttp());
+    }
+    
+    /**
+     * Etherscan API使用的非阻塞WebClient
+     */
+    @Bean
+    public WebClient etherscanWebClient() {
+        return buildWebClient("etherscan", aaveProperties.getEtherscan().getHttp());
+    }
+    
+    /**
+     * CoinGecko API使用的非阻塞WebClient
+     */
+    @Bean
+    public WebClient coingeckoWebClient() {
+        return buildWebClient("coingecko", aaveProperties.getCoingecko().getHttp());
+    }
+    
+    private WebClient buildWebClient(String provider, AaveProperties.Http http) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder(provider)
+                .maxConnections(http.getMaxConnections())
+                .maxIdleTime(Duration.ofSeconds(http.getKeepAliveSeconds()))
+                .pendingAcquireMaxCount(-1)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, http.getConnectTimeoutMs())
+                .responseTimeout(Duration.ofMillis(http.getReadTimeoutMs()))
+                .compress(true);
+        
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .exchangeStrategies(ExchangeStrategies.builder()
+                        .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(MAX_RESPONSE_BYTES))
+                        .build())
+                .build();
+    }
+    
+    private RestTemplate buildRestTemplate(AaveProperties.Http http) {
+        OkHttpClient client = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(http.getMaxIdleConnections(),
+                        http.getKeepAliveSeconds(), TimeUnit.SECONDS))
+                .connectTimeout(http.getConnectTimeoutMs(), TimeUnit.MILLISECONDS)
+                .readTimeout(http.getReadTimeoutMs(), TimeUnit.MILLISECONDS)
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .build();
+        return new RestTemplate(new OkHttp3ClientHttpRequestFactory(client));
+    }
+}
@@ -0,0 +1,32 @@
+package com.defi.aave.config;
+
+import com.defi.aave.client.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 外部API限流配置
+ * 每个API提供方使用独立的令牌桶
+ */
+@Configuration
+public class RateLimitConfig {
+    
+    @Autowired
+    private AaveProperties aaveProperties;
+    
+    @Bean
+    public TokenBucketRateLimiter etherscanRateLimiter(MeterRegistry meterRegistry) {
+        AaveProperties.Etherscan etherscan = aaveProperties.getEtherscan();
+        return new TokenBucketRateLimiter("etherscan",
+                etherscan.getRequestsPerSecond(), etherscan.getBurst(), meterRegistry);
+    }
+    
+    @Bean
+    public TokenBucketRateLimiter coingeckoRateLimiter(MeterRegistry meterRegistry) {
+        AaveProperties.Coingecko coingecko = aaveProperties.getCoingecko();
+        return new TokenBucketRateLimiter("coingecko",
+                coingecko.getRequestsPerSecond(), coingecko.getBurst(), meterRegistry);
+    }
+}
@@ -0,0 +1,45 @@
+package com.defi.aave.config;
+
+import com.defi.aave.client.EtherscanResponse;
+import com.defi.aave.client.ResilientApiExecutor;
+import com.defi.aave.client.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * 外部API重试与熔断配置
+ * 每个API提供方使用独立的请求执行器和熔断器
+ * Etherscan限流时返回HTTP 200，由执行器按响应体识别为限流并重试
+ */
+@Configuration
+public class ResilienceConfig {
+    
+    @Autowired
+    private AaveProperties aaveProperties;
+    
+    @Bean
+    public ResilientApiExecutor etherscanApiExecutor(
+            @Qualifier("etherscanRestTemplate") RestTemplate restTemplate,
+            @Qualifier("etherscanWebClient") WebClient webClient,
+            @Qualifier("etherscanRateLimiter") TokenBucketRateLimiter rateLimiter,
+            MeterRegistry meterRegistry) {
+        return new ResilientApiExecutor("etherscan", restTemplate, webClient, rateLimiter,
+                aaveProperties.getResilience(), meterRegistry,
+                response -> response instanceof EtherscanResponse && ((EtherscanResponse) response).isRateLimited());
+    }
+    
+    @Bean
+    public ResilientApiExecutor coingeckoApiExecutor(
+            @Qualifier("coingeckoRestTemplate") RestTemplate restTemplate,
+            @Qualifier("coingeckoWebClient") WebClient webClient,
+            @Qualifier("coingeckoRateLimiter") TokenBucketRateLimiter rateLimiter,
+            MeterRegistry meterRegistry) {
+        return new ResilientApiExecutor("coingecko", restTemplate, webClient, rateLimiter,
+                aaveProperties.getResilience(), meterRegistry);
+    }
+}
@@ -0,0 +1,54 @@
+package com.defi.aave.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * 同步任务配置
+ */
+@Configuration
+@EnableScheduling
+public class SyncConfig {
+    
+    @Autowired
+    private AaveProperties aaveProperties;
+    
+    /**
+     * 持有者同步工作线程池
+     * 作为Reactor调度器在WebClient响应之后执行阻塞的价格查询和数据库访问，线程数有界；
+     * 队列不设上限、不拒绝任务：拒绝时由提交线程执行（CallerRunsPolicy）会让阻塞操作跑在Netty事件循环线程上。
+     * 待执行任务数由同步批次大小限制，每批全部完成后才提交下一批
+     */
+    @Bean
+    public ThreadPoolTaskExecutor holderSyncExecutor() {
+        AaveProperties.Sync sync = aaveProperties.getSync();
+        
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(sync.getWorkerThreads());
+        executor.setMaxPoolSize(sync.getWorkerThreads());
+        executor.setQueueCapacity(Integer.MAX_VALUE);
+        executor.setThreadNamePrefix("holder-sync-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * 后台同步任务线程池
+     * 同一时间只运行一个同步任务，由SyncJobService保证
+     */
+    @Bean
+    public ThreadPoolTaskExecutor syncJobExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("sync-job-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,17 +1,31 @@
 package com.defi.aave.controller;
 
+import com.defi.aave.config.AaveProperties;
 import com.defi.aave.dto.ApiResponse;
 import com.defi.aave.dto.HolderDto;
+import com.defi.aave.dto.HolderLookupRequest;
 import com.defi.aave.dto.PageDto;
-import com.defi.aave.dto.SyncResultDto;
+import com.defi.aave.dto.SyncJobDto;
+import com.defi.aave.model.Address;
 import com.defi.aave.service.AaveHolderService;
+import com.defi.aave.service.CostBasisService;
+import com.defi.aave.service.HolderExportService;
+import com.defi.aave.service.SyncJobService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
 
 /**
  * AAVE持有者控制器
@@ -25,34 +39,162 @@ public class AaveHolderController {
     @Autowired
     private AaveHolderService aaveHolderService;
     
+    @Autowired
+    private SyncJobService syncJobService;
+    
+    @Autowired
+    private HolderExportService holderExportService;
+    
+    @Autowired
+    private AaveProperties aaveProperties;
+    
     /**
-     * 触发数据同步
+     * 触发数据同步（后台执行）
      * POST /api/aave/holders/sync
+     * 
+     * 立即返回任务ID，通过 GET /api/aave/holders/sync/{jobId} 查询进度；
+     * 已有同步任务运行时返回409
      */
     @PostMapping("/sync")
-    public ResponseEntity<ApiResponse<SyncResultDto>> syncHolders() {
+    public ResponseEntity<ApiResponse<SyncJobDto>> syncHolders() {
         log.info("Received request to sync AAVE holders");
         
         try {
-            SyncResultDto result = aaveHolderService.syncHolders();
+            SyncJobDto job = syncJobService.startSync();
             
-            return ResponseEntity.ok(ApiResponse.<SyncResultDto>builder()
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.<SyncJobDto>builder()
+                            .code(202)
+                            .message("Sync job started")
+                            .data(job)
+                            .build());
+        } catch (IllegalStateException e) {
+            log.warn("Rejected sync request: {}", e.getMessage());
+            
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.<SyncJobDto>builder()
+                            .code(409)
+                            .message(e.getMessage())
+                            .data(null)
+                            .build());
+        } catch (Exception e) {
+            log.error("Error starting sync: {}", e.getMessage(), e);
+            
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.<SyncJobDto>builder()
+                            .code(500)
+                            .message("Sync failed: " + e.getMessage())
+                            .data(null)
+                            .build());
+        }
+    }
+    
+    /**
+     * 按完整转账记录重新计算全部持有者的持仓成本和收益（后台执行）
+     * POST /api/aave/holders/cost-basis/recompute
+     * 
+     * 与同步任务共用后台线程，立即返回任务ID，通过 GET /api/aave/holders/sync/{jobId} 查询进度；
+     * 已有同步或重算任务运行时返回409
+     * 
+     * @param method 成本计算方法（fifo, average），默认使用配置值
+     */
+    @PostMapping("/cost-basis/recompute")
+    public ResponseEntity<ApiResponse<SyncJobDto>> recomputeCostBasis(@RequestParam(required = false) String method) {
+        log.info("Received request to recompute cost basis, method: {}", method);
+        
+        try {
+            CostBasisService.Method costMethod = CostBasisService.Method.parse(
+                    method != null ? method : aaveProperties.getCostBasis().getMethod());
+            SyncJobDto job = syncJobService.startCostBasisRecompute(costMethod);
+            
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.<SyncJobDto>builder()
+                            .code(202)
+                            .message("Recompute " + costMethod + " cost basis job started")
+                            .data(job)
+                            .build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.<SyncJobDto>builder()
+                            .code(400)
+                            .message(e.getMessage())
+                            .data(null)
+                            .build());
+        } catch (IllegalStateException e) {
+            log.warn("Rejected cost basis recompute request: {}", e.getMessage());
+            
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.<SyncJobDto>builder()
+                            .code(409)
+                            .message(e.getMessage())
+                            .data(null)
+                            .build());
+        } catch (Exception e) {
+            log.error("Error starting cost basis recompute: {}", e.getMessage(), e);
+            
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.<SyncJobDto>builder()
+                            .code(500)
+                            .message("Recompute failed: " + e.getMessage())
+                            .data(null)
+                            .build());
+        }
+    }
+    
+    /**
+     * 按最新AAVE价格重新估值全部持有者（不重新查询余额）
+     * POST /api/aave/holders/remark
+     */
+    @PostMapping("/remark")
+    public ResponseEntity<ApiResponse<Integer>> remarkHolders() {
+        log.info("Received request to re-mark holders");
+        
+        try {
+            int updated = aaveHolderService.remarkHolders();
+            
+            return ResponseEntity.ok(ApiResponse.<Integer>builder()
                     .code(200)
-                    .message("Sync completed successfully")
-                    .data(result)
+                    .message("Re-marked holders at current price")
+                    .data(updated)
                     .build());
         } catch (Exception e) {
-            log.error("Error during sync: {}", e.getMessage(), e);
+            log.error("Error re-marking holders: {}", e.getMessage(), e);
             
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.<SyncResultDto>builder()
+                    .body(ApiResponse.<Integer>builder()
                             .code(500)
-                            .message("Sync failed: " + e.getMessage())
+                            .message("Re-mark failed: " + e.getMessage())
                             .data(null)
                             .build());
         }
     }
     
+    /**
+     * 查询同步任务进度
+     * GET /api/aave/holders/sync/{jobId}
+     * 
+     * @param jobId 同步任务ID
+     */
+    @GetMapping("/sync/{jobId}")
+    public ResponseEntity<ApiResponse<SyncJobDto>> getSyncJob(@PathVariable String jobId) {
+        SyncJobDto job = syncJobService.getJob(jobId);
+        
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.<SyncJobDto>builder()
+                            .code(404)
+                            .message("Sync job not found: " + jobId)
+                            .data(null)
+                            .build());
+        }
+        
+        return ResponseEntity.ok(ApiResponse.<SyncJobDto>builder()
+                .code(200)
+                .message("Query successful")
+                .data(job)
+                .build());
+    }
+    
     /**
      * 查询持有者列表（分页）
      * GET /api/aave/holders
@@ -62,26 +204,51 @@ public class AaveHolderController {
      * @param sortBy 排序字段（holdingAmount, profitLossPercentage），默认holdingAmount
      * @param order 排序方向（asc, desc），默认desc
      * @param minHolding 最小持仓量过滤，默认3000
+     * @param cursor 游标分页：传入上一页返回的nextCursor，传空值查询第一页；传入时忽略page
+     * @param withCount 游标分页时是否返回总数，默认false
+     * 
+     * 成功响应带有数据版本ETag，If-None-Match匹配时返回304；参数错误等错误响应不带ETag
+     * 只校验游标等无需查询的参数后即比较ETag，304响应不执行任何查询
      */
     @GetMapping
     public ResponseEntity<ApiResponse<PageDto<HolderDto>>> getHolders(
+            WebRequest request,
             @RequestParam(required = false) Integer page,
             @RequestParam(required = false) Integer size,
             @RequestParam(required = false) String sortBy,
             @RequestParam(required = false) String order,
-            @RequestParam(required = false) BigDecimal minHolding) {
+            @RequestParam(required = false) BigDecimal minHolding,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withCount) {
         
-        log.info("Querying holders - page: {}, size: {}, sortBy: {}, order: {}, minHolding: {}", 
-                page, size, sortBy, order, minHolding);
+        // 先取版本再查询：查询期间发生写入时ETag偏旧，客户端下次会重新获取，不会错过更新
+        String etag = dataVersionEtag();
+        
+        log.info("Querying holders - page: {}, size: {}, sortBy: {}, order: {}, minHolding: {}, cursor: {}", 
+                page, size, sortBy, order, minHolding, cursor);
         
         try {
-            PageDto<HolderDto> result = aaveHolderService.getHolders(page, size, sortBy, order, minHolding);
+            // 先校验参数再比较ETag：参数不合法时返回400而不是304，匹配时不执行查询
+            aaveHolderService.validateCursor(cursor, sortBy, order);
+            if (isNotModified(request, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
             
-            return ResponseEntity.ok(ApiResponse.<PageDto<HolderDto>>builder()
+            PageDto<HolderDto> result = cursor != null
+                    ? aaveHolderService.getHoldersByCursor(cursor, size, sortBy, order, minHolding, withCount)
+                    : aaveHolderService.getHolders(page, size, sortBy, order, minHolding);
+            return ResponseEntity.ok().eTag(etag).body(ApiResponse.<PageDto<HolderDto>>builder()
                     .code(200)
                     .message("Query successful")
                     .data(result)
                     .build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.<PageDto<HolderDto>>builder()
+                            .code(400)
+                            .message(e.getMessage())
+                            .data(null)
+                            .build());
         } catch (Exception e) {
             log.error("Error querying holders: {}", e.getMessage(), e);
             
@@ -94,17 +261,98 @@ public class AaveHolderController {
         }
     }
     
+    /**
+     * 批量查询持有者详情
+     * POST /api/aave/holders/lookup
+     * 
+     * 单次请求最多1000个地址，返回以小写地址为键的映射，不存在的地址值为null
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<ApiResponse<Map<String, HolderDto>>> lookupHolders(
+            @Valid @RequestBody HolderLookupRequest request) {
+        log.info("Looking up {} holders", request.getAddresses().size());
+        
+        try {
+            Map<String, HolderDto> holders = aaveHolderService.getHoldersByAddresses(request.getAddresses());
+            
+            return ResponseEntity.ok(ApiResponse.<Map<String, HolderDto>>builder()
+                    .code(200)
+                    .message("Query successful")
+                    .data(holders)
+                    .build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.<Map<String, HolderDto>>builder()
+                            .code(400)
+                            .message(e.getMessage())
+                            .data(null)
+                            .build());
+        } catch (Exception e) {
+            log.error("Error looking up holders: {}", e.getMessage(), e);
+            
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.<Map<String, HolderDto>>builder()
+                            .code(500)
+                            .message("Query failed: " + e.getMessage())
+                            .data(null)
+                            .build());
+        }
+    }
+    
+    /**
+     * 导出全部持有者
+     * GET /api/aave/holders/export
+     * 
+     * 结果从数据库游标逐行写入响应流，内存占用与行数无关
+     * 
+     * @param minHolding 最小持仓量过滤，默认3000
+     * @param format 导出格式（ndjson, csv），默认ndjson
+     */
+    @GetMapping("/export")
+    public void exportHolders(@RequestParam(required = false) BigDecimal minHolding,
+                              @RequestParam(defaultValue = "ndjson") String format,
+                              HttpServletResponse response) throws IOException {
+        HolderExportService.Format exportFormat;
+        try {
+            exportFormat = HolderExportService.parseFormat(format);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+            return;
+        }
+        
+        log.info("Exporting holders - minHolding: {}, format: {}", minHolding, exportFormat);
+        boolean csv = exportFormat == HolderExportService.Format.CSV;
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"aave_holders." + (csv ? "csv" : "ndjson") + "\"");
+        holderExportService.export(minHolding, exportFormat, response.getOutputStream());
+    }
+    
     /**
      * 查询单个持有者详情
      * GET /api/aave/holders/{address}
      * 
      * @param address 钱包地址
+     * 
+     * 成功响应带有数据版本ETag，If-None-Match匹配时不查询直接返回304；
+     * 地址不合法（400）时不比较ETag，持有者不存在（404）时不返回ETag
      */
     @GetMapping("/{address}")
-    public ResponseEntity<ApiResponse<HolderDto>> getHolderByAddress(@PathVariable String address) {
+    public ResponseEntity<ApiResponse<HolderDto>> getHolderByAddress(@PathVariable String address,
+                                                                     WebRequest request) {
+        String etag = dataVersionEtag();
+        
         log.info("Querying holder details for address: {}", address);
         
         try {
+            // 地址格式不合法时抛出IllegalArgumentException，返回400
+            Address.of(address);
+            // ETag只在成功响应中下发，匹配说明该地址在当前数据版本下存在且未变化
+            if (isNotModified(request, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            
             HolderDto holder = aaveHolderService.getHolderByAddress(address);
             
             if (holder == null) {
@@ -116,11 +364,18 @@ public class AaveHolderController {
                                 .build());
             }
             
-            return ResponseEntity.ok(ApiResponse.<HolderDto>builder()
+            return ResponseEntity.ok().eTag(etag).body(ApiResponse.<HolderDto>builder()
                     .code(200)
                     .message("Query successful")
                     .data(holder)
                     .build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.<HolderDto>builder()
+                            .code(400)
+                            .message(e.getMessage())
+                            .data(null)
+                            .build());
         } catch (Exception e) {
             log.error("Error querying holder {}: {}", address, e.getMessage(), e);
             
@@ -132,4 +387,28 @@ public class AaveHolderController {
                             .build());
         }
     }
+    
+    /**
+     * If-None-Match是否包含当前ETag（支持多个值和*，按弱比较忽略W/前缀）
+     * 不使用WebRequest.checkNotModified：其未匹配时也会在响应中写入ETag，随后的404响应会带上ETag
+     */
+    private static boolean isNotModified(WebRequest request, String etag) {
+        String[] values = request.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+        if (values == null) {
+            return false;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.put(HttpHeaders.IF_NONE_MATCH, Arrays.asList(values));
+        for (String candidate : headers.getIfNoneMatch()) {
+            String tag = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if ("*".equals(tag) || etag.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private String dataVersionEtag() {
+        return "\"" + aaveHolderService.getDataVersionTag() + "\"";
+    }
 }
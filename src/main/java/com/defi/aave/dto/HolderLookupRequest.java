@@ -0,0 +1,25 @@
+package com.defi.aave.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * 批量查询持有者请求
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HolderLookupRequest {
+    
+    /**
+     * 钱包地址列表（42位十六进制，以0x开头），单次最多1000个
+     */
+    @NotEmpty(message = "addresses must not be empty")
+    @Size(max = 1000, message = "at most 1000 addresses per request")
+    private List<String> addresses;
+}
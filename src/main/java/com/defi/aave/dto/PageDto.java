@@ -51,4 +51,9 @@ public class PageDto<T> {
      * 是否为最后一页
      */
     private Boolean last;
+    
+    /**
+     * 游标分页模式下获取下一页的游标，已是最后一页时为null
+     */
+    private String nextCursor;
 }
@@ -0,0 +1,82 @@
+package com.defi.aave.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 同步任务DTO
+ * 用于返回后台同步或持仓成本重算任务的状态和实时进度
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncJobDto {
+    
+    /**
+     * 任务ID
+     */
+    private String jobId;
+    
+    /**
+     * 任务类型（SYNC：持有者同步，COST_BASIS：全量持仓成本重算）
+     */
+    private String type;
+    
+    /**
+     * 任务状态（RUNNING, COMPLETED, FAILED）
+     */
+    private String status;
+    
+    /**
+     * 已处理的地址数，等于成功、失败与跳过数量之和
+     */
+    private Integer totalProcessed;
+    
+    /**
+     * 成功分析的数量
+     */
+    private Integer successCount;
+    
+    /**
+     * 失败的数量
+     */
+    private Integer failedCount;
+    
+    /**
+     * 跳过的数量：余额低于最小持仓量且未入库的地址
+     */
+    private Integer skippedCount;
+    
+    /**
+     * 写入数据库的持有者行数
+     */
+    private Integer rowsWritten;
+    
+    /**
+     * 处理速率（地址/秒）
+     */
+    private Double throughput;
+    
+    /**
+     * 任务开始时间
+     */
+    private String startTime;
+    
+    /**
+     * 任务结束时间，运行中为null
+     */
+    private String endTime;
+    
+    /**
+     * 已运行时长（秒）
+     */
+    private Long durationSeconds;
+    
+    /**
+     * 失败原因
+     */
+    private String errorMessage;
+}
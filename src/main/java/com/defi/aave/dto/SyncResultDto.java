@@ -16,7 +16,7 @@ import lombok.NoArgsConstructor;
 public class SyncResultDto {
     
     /**
-     * 处理的地址总数
+     * 处理的地址总数，等于成功、失败与跳过数量之和
      */
     private Integer totalProcessed;
     
@@ -30,6 +30,21 @@ public class SyncResultDto {
      */
     private Integer failedCount;
     
+    /**
+     * 跳过的数量：余额低于最小持仓量且未入库的地址
+     */
+    private Integer skippedCount;
+    
+    /**
+     * 写入数据库的持有者行数
+     */
+    private Integer rowsWritten;
+    
+    /**
+     * 数据库写入速率（行/秒）
+     */
+    private Double rowsPerSecond;
+    
     /**
      * 同步开始时间
      */
@@ -1,5 +1,6 @@
 package com.defi.aave.entity;
 
+import com.defi.aave.model.Address;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,7 +18,8 @@ import java.time.LocalDateTime;
 @Table(name = "aave_holders", indexes = {
     @Index(name = "idx_wallet_address", columnList = "wallet_address", unique = true),
     @Index(name = "idx_holding_amount", columnList = "holding_amount"),
-    @Index(name = "idx_profit_loss_percentage", columnList = "profit_loss_percentage")
+    @Index(name = "idx_profit_loss_percentage", columnList = "profit_loss_percentage"),
+    @Index(name = "idx_last_updated", columnList = "last_updated")
 })
 @Data
 @Builder
@@ -30,10 +32,10 @@ public class AaveHolder {
     private Long id;
     
     /**
-     * 钱包地址（42位十六进制字符，以0x开头）
+     * 钱包地址（20字节）
      */
-    @Column(name = "wallet_address", nullable = false, unique = true, length = 42)
-    private String walletAddress;
+    @Column(name = "wallet_address", nullable = false, unique = true, columnDefinition = "BINARY(20)")
+    private Address walletAddress;
     
     /**
      * 当前持有AAVE数量
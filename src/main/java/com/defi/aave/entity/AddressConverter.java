@@ -0,0 +1,23 @@
+package com.defi.aave.entity;
+
+import com.defi.aave.model.Address;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * 地址字段与BINARY(20)列的转换
+ */
+@Converter(autoApply = true)
+public class AddressConverter implements AttributeConverter<Address, byte[]> {
+    
+    @Override
+    public byte[] convertToDatabaseColumn(Address address) {
+        return address != null ? address.toBytes() : null;
+    }
+    
+    @Override
+    public Address convertToEntityAttribute(byte[] bytes) {
+        return bytes != null ? Address.fromBytes(bytes) : null;
+    }
+}
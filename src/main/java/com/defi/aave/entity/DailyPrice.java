@@ -0,0 +1,58 @@
+package com.defi.aave.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * AAVE每日历史价格实体类
+ * 以UTC日期为主键，历史价格不会变化，写入后不再更新
+ */
+@Entity
+@Table(name = "aave_daily_prices")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyPrice {
+    
+    /**
+     * 价格日期（UTC）
+     */
+    @Id
+    @Column(name = "price_date", nullable = false)
+    private LocalDate priceDate;
+    
+    /**
+     * 当日AAVE价格（USD）
+     */
+    @Column(name = "price", nullable = false, precision = 20, scale = 8)
+    private BigDecimal price;
+    
+    /**
+     * 数据来源
+     */
+    @Column(name = "data_source", length = 50, nullable = false)
+    @Builder.Default
+    private String dataSource = "CoinGecko";
+    
+    /**
+     * 创建时间
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    /**
+     * 自动设置创建时间
+     */
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,50 @@
+package com.defi.aave.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 同步检查点实体类
+ * 记录各增量同步任务已完整处理到的区块号（价格回填任务记录已请求到的UTC日期）
+ */
+@Entity
+@Table(name = "sync_checkpoints")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncCheckpoint {
+    
+    /**
+     * 检查点名称
+     */
+    @Id
+    @Column(name = "name", nullable = false, length = 64)
+    private String name;
+    
+    /**
+     * 已完整处理的最后一个区块号；价格回填检查点为日期的epoch day
+     */
+    @Column(name = "block_number", nullable = false)
+    private Long blockNumber;
+    
+    /**
+     * 最后更新时间
+     */
+    @Column(name = "last_updated", nullable = false)
+    private LocalDateTime lastUpdated;
+    
+    /**
+     * 自动设置更新时间
+     */
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        lastUpdated = LocalDateTime.now();
+    }
+}
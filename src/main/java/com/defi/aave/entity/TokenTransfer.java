@@ -0,0 +1,68 @@
+package com.defi.aave.entity;
+
+import com.defi.aave.model.Address;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.math.BigInteger;
+
+/**
+ * AAVE代币转账记录实体类
+ * 由增量同步从Etherscan tokentx接口写入，按区块号顺序累积完整转账历史
+ * 写入走 TokenTransferRepository.insertAll 的JDBC批量插入，IDENTITY主键不影响批量写入
+ */
+@Entity
+@Table(name = "aave_token_transfers", indexes = {
+    @Index(name = "idx_transfer_block_number", columnList = "block_number"),
+    @Index(name = "idx_transfer_from_address", columnList = "from_address"),
+    @Index(name = "idx_transfer_to_address", columnList = "to_address")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenTransfer {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    /**
+     * 区块号
+     */
+    @Column(name = "block_number", nullable = false)
+    private Long blockNumber;
+    
+    /**
+     * 区块时间（Unix时间戳，秒）
+     */
+    @Column(name = "block_timestamp", nullable = false)
+    private Long blockTimestamp;
+    
+    /**
+     * 交易哈希
+     */
+    @Column(name = "tx_hash", nullable = false, length = 66)
+    private String txHash;
+    
+    /**
+     * 转出地址
+     */
+    @Column(name = "from_address", nullable = false, columnDefinition = "BINARY(20)")
+    private Address fromAddress;
+    
+    /**
+     * 转入地址
+     */
+    @Column(name = "to_address", nullable = false, columnDefinition = "BINARY(20)")
+    private Address toAddress;
+    
+    /**
+     * 转账数量（最小单位，18位小数）
+     */
+    @Column(name = "raw_value", nullable = false, precision = 38, scale = 0)
+    private BigInteger value;
+}
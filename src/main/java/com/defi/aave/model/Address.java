@@ -0,0 +1,183 @@
+package com.defi.aave.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.io.Serializable;
+
+/**
+ * 以太坊地址（不可变）
+ * 20字节以两个long和一个int保存，哈希值在构造时预先计算，
+ * 比较和哈希无需逐字符处理；解析时大小写不敏感，输出统一为小写
+ */
+public final class Address implements Comparable<Address>, Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 地址字节数
+     */
+    public static final int LENGTH = 20;
+    
+    /**
+     * 铸造/销毁使用的零地址
+     */
+    public static final Address ZERO = new Address(0L, 0L, 0);
+    
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+    
+    /**
+     * 第0-7字节
+     */
+    private final long high;
+    
+    /**
+     * 第8-15字节
+     */
+    private final long mid;
+    
+    /**
+     * 第16-19字节
+     */
+    private final int low;
+    
+    private final int hash;
+    
+    private Address(long high, long mid, int low) {
+        this.high = high;
+        this.mid = mid;
+        this.low = low;
+        this.hash = 31 * (31 * Long.hashCode(high) + Long.hashCode(mid)) + low;
+    }
+    
+    /**
+     * 解析0x开头的40位十六进制地址，大小写不敏感
+     * @throws IllegalArgumentException 格式不合法
+     */
+    @JsonCreator
+    public static Address of(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Address must not be null");
+        }
+        return of(text.toCharArray(), 0, text.length());
+    }
+    
+    /**
+     * 从字符缓冲区解析地址，流式解析JSON时无需创建中间字符串
+     */
+    public static Address of(char[] chars, int offset, int length) {
+        if (length != 2 + LENGTH * 2 || chars[offset] != '0'
+                || (chars[offset + 1] != 'x' && chars[offset + 1] != 'X')) {
+            throw new IllegalArgumentException("Invalid address: " + new String(chars, offset, length));
+        }
+        int pos = offset + 2;
+        long high = 0;
+        long mid = 0;
+        int low = 0;
+        for (int i = 0; i < 16; i++) {
+            high = (high << 4) | digit(chars, pos++, offset, length);
+        }
+        for (int i = 0; i < 16; i++) {
+            mid = (mid << 4) | digit(chars, pos++, offset, length);
+        }
+        for (int i = 0; i < 8; i++) {
+            low = (low << 4) | digit(chars, pos++, offset, length);
+        }
+        return new Address(high, mid, low);
+    }
+    
+    /**
+     * 由20字节的原始值构建地址
+     */
+    public static Address fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != LENGTH) {
+            throw new IllegalArgumentException("Address must be " + LENGTH + " bytes");
+        }
+        long high = 0;
+        long mid = 0;
+        int low = 0;
+        for (int i = 0; i < 8; i++) {
+            high = (high << 8) | (bytes[i] & 0xff);
+            mid = (mid << 8) | (bytes[i + 8] & 0xff);
+        }
+        for (int i = 16; i < LENGTH; i++) {
+            low = (low << 8) | (bytes[i] & 0xff);
+        }
+        return new Address(high, mid, low);
+    }
+    
+    public byte[] toBytes() {
+        byte[] bytes = new byte[LENGTH];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (high >>> (56 - 8 * i));
+            bytes[i + 8] = (byte) (mid >>> (56 - 8 * i));
+        }
+        for (int i = 0; i < 4; i++) {
+            bytes[16 + i] = (byte) (low >>> (24 - 8 * i));
+        }
+        return bytes;
+    }
+    
+    public boolean isZero() {
+        return high == 0 && mid == 0 && low == 0;
+    }
+    
+    /**
+     * 小写十六进制形式（带0x前缀）
+     */
+    @JsonValue
+    @Override
+    public String toString() {
+        char[] chars = new char[2 + LENGTH * 2];
+        chars[0] = '0';
+        chars[1] = 'x';
+        for (int i = 0; i < 16; i++) {
+            chars[2 + i] = DIGITS[(int) (high >>> (60 - 4 * i)) & 0xf];
+            chars[18 + i] = DIGITS[(int) (mid >>> (60 - 4 * i)) & 0xf];
+        }
+        for (int i = 0; i < 8; i++) {
+            chars[34 + i] = DIGITS[(low >>> (28 - 4 * i)) & 0xf];
+        }
+        return new String(chars);
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Address)) {
+            return false;
+        }
+        Address other = (Address) o;
+        return high == other.high && mid == other.mid && low == other.low;
+    }
+    
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+    
+    /**
+     * 按字节序（无符号）比较，与BINARY列的排序一致
+     */
+    @Override
+    public int compareTo(Address other) {
+        int result = Long.compareUnsigned(high, other.high);
+        if (result == 0) {
+            result = Long.compareUnsigned(mid, other.mid);
+        }
+        if (result == 0) {
+            result = Integer.compareUnsigned(low, other.low);
+        }
+        return result;
+    }
+    
+    private static int digit(char[] chars, int pos, int offset, int length) {
+        int digit = Character.digit(chars[pos], 16);
+        if (digit < 0) {
+            throw new IllegalArgumentException("Invalid address: " + new String(chars, offset, length));
+        }
+        return digit;
+    }
+}
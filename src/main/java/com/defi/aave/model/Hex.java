@@ -0,0 +1,56 @@
+package com.defi.aave.model;
+
+/**
+ * 以0x为前缀的十六进制字符串与字节数组互转
+ * 支持直接从字符缓冲区解析，流式解析JSON时无需创建中间字符串
+ */
+public final class Hex {
+    
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+    
+    private Hex() {
+    }
+    
+    /**
+     * 解析固定长度的十六进制值，大小写不敏感
+     * @param byteLength 期望的字节数（地址为20，交易哈希为32）
+     * @throws IllegalArgumentException 前缀、长度或字符不合法
+     */
+    public static byte[] decode(String text, int byteLength) {
+        return decode(text.toCharArray(), 0, text.length(), byteLength);
+    }
+    
+    public static byte[] decode(char[] chars, int offset, int length, int byteLength) {
+        if (length != 2 + byteLength * 2 || chars[offset] != '0'
+                || (chars[offset + 1] != 'x' && chars[offset + 1] != 'X')) {
+            throw new IllegalArgumentException("Expected 0x-prefixed hex of " + byteLength + " bytes: "
+                    + new String(chars, offset, length));
+        }
+        byte[] bytes = new byte[byteLength];
+        int pos = offset + 2;
+        for (int i = 0; i < byteLength; i++) {
+            int high = Character.digit(chars[pos++], 16);
+            int low = Character.digit(chars[pos++], 16);
+            if (high < 0 || low < 0) {
+                throw new IllegalArgumentException("Invalid hex: " + new String(chars, offset, length));
+            }
+            bytes[i] = (byte) ((high << 4) | low);
+        }
+        return bytes;
+    }
+    
+    /**
+     * 编码为小写十六进制字符串（带0x前缀）
+     */
+    public static String encode(byte[] bytes) {
+        char[] chars = new char[2 + bytes.length * 2];
+        chars[0] = '0';
+        chars[1] = 'x';
+        int pos = 2;
+        for (byte b : bytes) {
+            chars[pos++] = DIGITS[(b >> 4) & 0xf];
+            chars[pos++] = DIGITS[b & 0xf];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,86 @@
+package com.defi.aave.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 每日价格时间序列（不可变）
+ * 以两个按日期升序排列的基本类型数组存储：epoch-day 与按 {@link #SCALE} 位小数缩放后的价格，
+ * 查询通过二分查找完成，不产生装箱对象
+ */
+public final class PriceTimeSeries {
+    
+    /**
+     * 价格小数位数，与数据库价格列保持一致
+     */
+    public static final int SCALE = 8;
+    
+    private static final PriceTimeSeries EMPTY = new PriceTimeSeries(new long[0], new long[0]);
+    
+    private final long[] epochDays;
+    private final long[] scaledPrices;
+    
+    private PriceTimeSeries(long[] epochDays, long[] scaledPrices) {
+        this.epochDays = epochDays;
+        this.scaledPrices = scaledPrices;
+    }
+    
+    public static PriceTimeSeries empty() {
+        return EMPTY;
+    }
+    
+    /**
+     * 由日期到价格的映射构建序列
+     */
+    public static PriceTimeSeries of(Map<LocalDate, BigDecimal> prices) {
+        return EMPTY.merge(prices);
+    }
+    
+    /**
+     * 合并新的价格点，返回新序列；同一日期以新值为准
+     */
+    public PriceTimeSeries merge(Map<LocalDate, BigDecimal> prices) {
+        if (prices.isEmpty()) {
+            return this;
+        }
+        TreeMap<Long, Long> merged = new TreeMap<>();
+        for (int i = 0; i < epochDays.length; i++) {
+            merged.put(epochDays[i], scaledPrices[i]);
+        }
+        for (Map.Entry<LocalDate, BigDecimal> entry : prices.entrySet()) {
+            merged.put(entry.getKey().toEpochDay(),
+                    entry.getValue().setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+        }
+        
+        long[] days = new long[merged.size()];
+        long[] values = new long[merged.size()];
+        int i = 0;
+        for (Map.Entry<Long, Long> entry : merged.entrySet()) {
+            days[i] = entry.getKey();
+            values[i] = entry.getValue();
+            i++;
+        }
+        return new PriceTimeSeries(days, values);
+    }
+    
+    /**
+     * 查询指定日期的价格
+     * @return 序列中不存在该日期时返回null
+     */
+    public BigDecimal get(LocalDate date) {
+        int index = Arrays.binarySearch(epochDays, date.toEpochDay());
+        return index >= 0 ? BigDecimal.valueOf(scaledPrices[index], SCALE) : null;
+    }
+    
+    public int size() {
+        return epochDays.length;
+    }
+    
+    public boolean isEmpty() {
+        return epochDays.length == 0;
+    }
+}
@@ -0,0 +1,60 @@
+package com.defi.aave.model;
+
+import java.math.BigInteger;
+
+/**
+ * 紧凑的代币转账记录（不可变）
+ * 流式解析tokentx响应时使用，区块号和时间戳为基本类型，地址为Address，交易哈希为原始字节，
+ * 相比全部字段为字符串的TokenTransaction占用内存少得多
+ */
+public final class TransferRecord {
+    
+    public static final int HASH_LENGTH = 32;
+    
+    private final long blockNumber;
+    private final long timestamp;
+    private final byte[] txHash;
+    private final Address from;
+    private final Address to;
+    private final BigInteger value;
+    
+    public TransferRecord(long blockNumber, long timestamp, byte[] txHash,
+                          Address from, Address to, BigInteger value) {
+        this.blockNumber = blockNumber;
+        this.timestamp = timestamp;
+        this.txHash = txHash;
+        this.from = from;
+        this.to = to;
+        this.value = value;
+    }
+    
+    public long getBlockNumber() {
+        return blockNumber;
+    }
+    
+    /**
+     * 区块时间（Unix时间戳，秒）
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public byte[] getTxHash() {
+        return txHash;
+    }
+    
+    public Address getFrom() {
+        return from;
+    }
+    
+    public Address getTo() {
+        return to;
+    }
+    
+    /**
+     * 转账数量（最小单位）
+     */
+    public BigInteger getValue() {
+        return value;
+    }
+}
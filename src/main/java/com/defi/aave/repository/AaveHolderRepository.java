@@ -1,6 +1,7 @@
 package com.defi.aave.repository;
 
 import com.defi.aave.entity.AaveHolder;
+import com.defi.aave.model.Address;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,23 +10,31 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * AAVE持有者数据访问接口
  */
 @Repository
-public interface AaveHolderRepository extends JpaRepository<AaveHolder, Long> {
+public interface AaveHolderRepository extends JpaRepository<AaveHolder, Long>, AaveHolderRepositoryCustom {
     
     /**
      * 根据钱包地址查找持有者
      */
-    Optional<AaveHolder> findByWalletAddress(String walletAddress);
+    Optional<AaveHolder> findByWalletAddress(Address walletAddress);
+    
+    /**
+     * 根据钱包地址批量查找持有者
+     */
+    List<AaveHolder> findByWalletAddressIn(Collection<Address> walletAddresses);
     
     /**
      * 判断钱包地址是否已存在
      */
-    boolean existsByWalletAddress(String walletAddress);
+    boolean existsByWalletAddress(Address walletAddress);
     
     /**
      * 查询持仓量大于指定值的持有者（分页）
@@ -37,6 +46,86 @@ public interface AaveHolderRepository extends JpaRepository<AaveHolder, Long> {
      */
     long countByHoldingAmountGreaterThanEqual(BigDecimal minHolding);
     
+    /**
+     * 查询全部持有者的刷新优先级字段，每行为 [walletAddress, holdingAmount, lastUpdated]
+     */
+    @Query("SELECT a.walletAddress, a.holdingAmount, a.lastUpdated FROM AaveHolder a")
+    List<Object[]> findAllRefreshKeys();
+    
+    /**
+     * 键集分页：按 (持仓量, id) 降序取排在 (lastAmount, lastId) 之后的刷新优先级字段，
+     * 每行为 [walletAddress, holdingAmount, lastUpdated, id]
+     */
+    @Query("SELECT a.walletAddress, a.holdingAmount, a.lastUpdated, a.id FROM AaveHolder a "
+            + "WHERE a.holdingAmount < :lastAmount OR (a.holdingAmount = :lastAmount AND a.id < :lastId) "
+            + "ORDER BY a.holdingAmount DESC, a.id DESC")
+    List<Object[]> findNextRefreshKeys(@Param("lastAmount") BigDecimal lastAmount, @Param("lastId") Long lastId,
+                                       Pageable pageable);
+    
+    /**
+     * 最早的更新时间，使用idx_last_updated索引
+     */
+    @Query("SELECT MIN(a.lastUpdated) FROM AaveHolder a")
+    LocalDateTime findOldestLastUpdated();
+    
+    /**
+     * 键集分页：按 (持仓量, id) 降序取排在 (lastAmount, lastId) 之后的行，使用idx_holding_amount索引，不执行count
+     */
+    @Query("SELECT a FROM AaveHolder a WHERE a.holdingAmount >= :minHolding "
+            + "AND (a.holdingAmount < :lastAmount OR (a.holdingAmount = :lastAmount AND a.id < :lastId)) "
+            + "ORDER BY a.holdingAmount DESC, a.id DESC")
+    List<AaveHolder> findNextByHoldingAmountDesc(@Param("minHolding") BigDecimal minHolding,
+                                                 @Param("lastAmount") BigDecimal lastAmount,
+                                                 @Param("lastId") Long lastId, Pageable pageable);
+    
+    /**
+     * 键集分页：按 (持仓量, id) 升序取排在 (lastAmount, lastId) 之后的行
+     */
+    @Query("SELECT a FROM AaveHolder a WHERE a.holdingAmount >= :minHolding "
+            + "AND (a.holdingAmount > :lastAmount OR (a.holdingAmount = :lastAmount AND a.id > :lastId)) "
+            + "ORDER BY a.holdingAmount ASC, a.id ASC")
+    List<AaveHolder> findNextByHoldingAmountAsc(@Param("minHolding") BigDecimal minHolding,
+                                                @Param("lastAmount") BigDecimal lastAmount,
+                                                @Param("lastId") Long lastId, Pageable pageable);
+    
+    /**
+     * 键集分页：收益率非空的行按 (收益率, id) 降序取排在 (lastProfit, lastId) 之后的行，使用idx_profit_loss_percentage索引
+     */
+    @Query("SELECT a FROM AaveHolder a WHERE a.holdingAmount >= :minHolding AND a.profitLossPercentage IS NOT NULL "
+            + "AND (a.profitLossPercentage < :lastProfit "
+            + "OR (a.profitLossPercentage = :lastProfit AND a.id < :lastId)) "
+            + "ORDER BY a.profitLossPercentage DESC, a.id DESC")
+    List<AaveHolder> findNextByProfitPercentageDesc(@Param("minHolding") BigDecimal minHolding,
+                                                    @Param("lastProfit") BigDecimal lastProfit,
+                                                    @Param("lastId") Long lastId, Pageable pageable);
+    
+    /**
+     * 键集分页：收益率非空的行按 (收益率, id) 升序取排在 (lastProfit, lastId) 之后的行
+     */
+    @Query("SELECT a FROM AaveHolder a WHERE a.holdingAmount >= :minHolding AND a.profitLossPercentage IS NOT NULL "
+            + "AND (a.profitLossPercentage > :lastProfit "
+            + "OR (a.profitLossPercentage = :lastProfit AND a.id > :lastId)) "
+            + "ORDER BY a.profitLossPercentage ASC, a.id ASC")
+    List<AaveHolder> findNextByProfitPercentageAsc(@Param("minHolding") BigDecimal minHolding,
+                                                   @Param("lastProfit") BigDecimal lastProfit,
+                                                   @Param("lastId") Long lastId, Pageable pageable);
+    
+    /**
+     * 键集分页：收益率为空的行按id降序取排在lastId之后的行
+     */
+    @Query("SELECT a FROM AaveHolder a WHERE a.holdingAmount >= :minHolding AND a.profitLossPercentage IS NULL "
+            + "AND a.id < :lastId ORDER BY a.id DESC")
+    List<AaveHolder> findNextWithoutProfitDesc(@Param("minHolding") BigDecimal minHolding,
+                                               @Param("lastId") Long lastId, Pageable pageable);
+    
+    /**
+     * 键集分页：收益率为空的行按id升序取排在lastId之后的行
+     */
+    @Query("SELECT a FROM AaveHolder a WHERE a.holdingAmount >= :minHolding AND a.profitLossPercentage IS NULL "
+            + "AND a.id > :lastId ORDER BY a.id ASC")
+    List<AaveHolder> findNextWithoutProfitAsc(@Param("minHolding") BigDecimal minHolding,
+                                              @Param("lastId") Long lastId, Pageable pageable);
+    
     /**
      * 自定义查询：按持仓量排序并分页
      */
@@ -0,0 +1,43 @@
+package com.defi.aave.repository;
+
+import com.defi.aave.entity.AaveHolder;
+import com.defi.aave.model.Address;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * AAVE持有者自定义数据访问接口
+ */
+public interface AaveHolderRepositoryCustom {
+    
+    /**
+     * 按钱包地址批量插入或更新持有者（JDBC批处理）
+     * 已存在的记录保留id和创建时间，其余字段以传入值覆盖，传入实体的最后更新时间同步设置为写入时间
+     * @return 写入的行数
+     */
+    int upsertAll(List<AaveHolder> holders);
+    
+    /**
+     * 以只进游标逐行读取持仓量不低于minHolding的持有者（按id升序），每行映射为新的实体后交给action处理
+     * 结果集按批次从数据库拉取，内存占用与总行数无关；返回的实体不受持久化上下文管理
+     * @return 读取的行数
+     */
+    long streamByMinHolding(BigDecimal minHolding, Consumer<AaveHolder> action);
+    
+    /**
+     * 按钱包地址批量更新持仓成本（JDBC批处理），收益和收益率在数据库中按当前持仓价值重新计算，
+     * 不读取也不覆盖其他字段（最后更新时间仍表示余额的刷新时间），与并发的余额刷新互不干扰
+     * @return 更新的行数
+     */
+    int updateCostBasis(Map<Address, BigDecimal> costBasis);
+    
+    /**
+     * 按新价格重新估值全部持有者：一条UPDATE语句在数据库中重算当前价格、持仓价值、收益和收益率，
+     * 当前价格已等于新价格的行不更新；不修改最后更新时间，其仍表示余额的刷新时间
+     * @return 更新的行数
+     */
+    int remarkAll(BigDecimal currentPrice);
+}
@@ -0,0 +1,259 @@
+package com.defi.aave.repository;
+
+import com.defi.aave.entity.AaveHolder;
+import com.defi.aave.model.Address;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import java.math.BigDecimal;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * AAVE持有者自定义数据访问实现
+ * 使用数据库原生的upsert语句批量写入，避免逐行 findByWalletAddress + save 的两次往返：
+ * MySQL 使用 INSERT ... ON DUPLICATE KEY UPDATE，H2 使用 MERGE ... USING；
+ * 全表导出使用只进游标逐行回调，不经过持久化上下文
+ */
+@Slf4j
+public class AaveHolderRepositoryImpl implements AaveHolderRepositoryCustom {
+    
+    /**
+     * 每个JDBC批次的最大行数
+     */
+    private static final int BATCH_SIZE = 500;
+    
+    private static final String MYSQL_UPSERT_SQL =
+            "INSERT INTO aave_holders (wallet_address, holding_amount, first_purchase_time, first_purchase_price, "
+                    + "first_purchase_amount, current_price, cost_basis, current_value, profit_loss, "
+                    + "profit_loss_percentage, data_source, last_updated, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE holding_amount = VALUES(holding_amount), "
+                    + "first_purchase_time = VALUES(first_purchase_time), "
+                    + "first_purchase_price = VALUES(first_purchase_price), "
+                    + "first_purchase_amount = VALUES(first_purchase_amount), "
+                    + "current_price = VALUES(current_price), cost_basis = VALUES(cost_basis), "
+                    + "current_value = VALUES(current_value), profit_loss = VALUES(profit_loss), "
+                    + "profit_loss_percentage = VALUES(profit_loss_percentage), "
+                    + "data_source = VALUES(data_source), last_updated = VALUES(last_updated)";
+    
+    private static final String H2_UPSERT_SQL =
+            "MERGE INTO aave_holders t USING (VALUES (CAST(? AS BINARY(20)), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)) "
+                    + "AS s(wallet_address, holding_amount, first_purchase_time, first_purchase_price, "
+                    + "first_purchase_amount, current_price, cost_basis, current_value, profit_loss, "
+                    + "profit_loss_percentage, data_source, last_updated, created_at) "
+                    + "ON t.wallet_address = s.wallet_address "
+                    + "WHEN MATCHED THEN UPDATE SET holding_amount = s.holding_amount, "
+                    + "first_purchase_time = s.first_purchase_time, first_purchase_price = s.first_purchase_price, "
+                    + "first_purchase_amount = s.first_purchase_amount, current_price = s.current_price, "
+                    + "cost_basis = s.cost_basis, current_value = s.current_value, profit_loss = s.profit_loss, "
+                    + "profit_loss_percentage = s.profit_loss_percentage, data_source = s.data_source, "
+                    + "last_updated = s.last_updated "
+                    + "WHEN NOT MATCHED THEN INSERT (wallet_address, holding_amount, first_purchase_time, "
+                    + "first_purchase_price, first_purchase_amount, current_price, cost_basis, current_value, "
+                    + "profit_loss, profit_loss_percentage, data_source, last_updated, created_at) "
+                    + "VALUES (s.wallet_address, s.holding_amount, s.first_purchase_time, s.first_purchase_price, "
+                    + "s.first_purchase_amount, s.current_price, s.cost_basis, s.current_value, s.profit_loss, "
+                    + "s.profit_loss_percentage, s.data_source, s.last_updated, s.created_at)";
+    
+    /**
+     * 导出查询每次从数据库拉取的行数（MySQL需在连接串中开启useCursorFetch才按批拉取）
+     */
+    private static final int STREAM_FETCH_SIZE = 1000;
+    
+    private static final String STREAM_SQL =
+            "SELECT id, wallet_address, holding_amount, first_purchase_time, first_purchase_price, "
+                    + "first_purchase_amount, current_price, cost_basis, current_value, profit_loss, "
+                    + "profit_loss_percentage, data_source, last_updated, created_at "
+                    + "FROM aave_holders WHERE holding_amount >= ? ORDER BY id";
+    
+    /**
+     * 收益率与AaveHolderService的计算一致：先保留4位小数再乘以100保留2位（四舍五入）
+     */
+    private static final String UPDATE_COST_BASIS_SQL =
+            "UPDATE aave_holders SET cost_basis = ?, "
+                    + "profit_loss = CASE WHEN ? > 0 THEN current_value - ? END, "
+                    + "profit_loss_percentage = CASE WHEN ? > 0 "
+                    + "THEN ROUND(ROUND((current_value - ?) / CAST(? AS DECIMAL(30, 8)), 4) * 100, 2) END "
+                    + "WHERE wallet_address = ?";
+    
+    private static final int[] COST_BASIS_ARG_TYPES = {
+            Types.DECIMAL, Types.DECIMAL, Types.DECIMAL, Types.DECIMAL, Types.DECIMAL, Types.DECIMAL,
+            Types.BINARY
+    };
+    
+    /**
+     * 成本为空或不大于0时保留原收益，与AaveHolderService中按余额估值的逻辑一致
+     */
+    private static final String REMARK_SQL =
+            "UPDATE aave_holders SET current_price = CAST(? AS DECIMAL(20, 8)), "
+                    + "current_value = ROUND(holding_amount * CAST(? AS DECIMAL(20, 8)), 8), "
+                    + "profit_loss = CASE WHEN cost_basis > 0 "
+                    + "THEN ROUND(holding_amount * CAST(? AS DECIMAL(20, 8)), 8) - cost_basis "
+                    + "ELSE profit_loss END, "
+                    + "profit_loss_percentage = CASE WHEN cost_basis > 0 "
+                    + "THEN ROUND(ROUND((ROUND(holding_amount * CAST(? AS DECIMAL(20, 8)), 8) - cost_basis) "
+                    + "/ cost_basis, 4) * 100, 2) ELSE profit_loss_percentage END "
+                    + "WHERE current_price <> CAST(? AS DECIMAL(20, 8))";
+    
+    private static final int[] REMARK_ARG_TYPES = {
+            Types.DECIMAL, Types.DECIMAL, Types.DECIMAL, Types.DECIMAL, Types.DECIMAL
+    };
+    
+    private static final int[] ARG_TYPES = {
+            Types.BINARY, Types.DECIMAL, Types.TIMESTAMP, Types.DECIMAL,
+            Types.DECIMAL, Types.DECIMAL, Types.DECIMAL, Types.DECIMAL, Types.DECIMAL,
+            Types.DECIMAL, Types.VARCHAR, Types.TIMESTAMP, Types.TIMESTAMP
+    };
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private volatile String upsertSql;
+    
+    @Override
+    public int upsertAll(List<AaveHolder> holders) {
+        if (holders.isEmpty()) {
+            return 0;
+        }
+        
+        String sql = getUpsertSql();
+        LocalDateTime updateTime = LocalDateTime.now();
+        Timestamp now = Timestamp.valueOf(updateTime);
+        int written = 0;
+        for (int i = 0; i < holders.size(); i += BATCH_SIZE) {
+            List<AaveHolder> chunk = holders.subList(i, Math.min(i + BATCH_SIZE, holders.size()));
+            List<Object[]> batchArgs = new ArrayList<>(chunk.size());
+            for (AaveHolder holder : chunk) {
+                holder.setLastUpdated(updateTime);
+                batchArgs.add(new Object[]{
+                        holder.getWalletAddress().toBytes(),
+                        holder.getHoldingAmount(),
+                        toTimestamp(holder.getFirstPurchaseTime()),
+                        holder.getFirstPurchasePrice(),
+                        holder.getFirstPurchaseAmount(),
+                        holder.getCurrentPrice(),
+                        holder.getCostBasis(),
+                        holder.getCurrentValue(),
+                        holder.getProfitLoss(),
+                        holder.getProfitLossPercentage(),
+                        holder.getDataSource() != null ? holder.getDataSource() : "Etherscan",
+                        now,
+                        now
+                });
+            }
+            jdbcTemplate.batchUpdate(sql, batchArgs, ARG_TYPES);
+            written += chunk.size();
+        }
+        return written;
+    }
+    
+    @Override
+    public int updateCostBasis(Map<Address, BigDecimal> costBasis) {
+        List<Object[]> batchArgs = new ArrayList<>(Math.min(costBasis.size(), BATCH_SIZE));
+        int updated = 0;
+        for (Map.Entry<Address, BigDecimal> entry : costBasis.entrySet()) {
+            BigDecimal cost = entry.getValue();
+            batchArgs.add(new Object[]{cost, cost, cost, cost, cost, cost, entry.getKey().toBytes()});
+            if (batchArgs.size() == BATCH_SIZE) {
+                updated += sum(jdbcTemplate.batchUpdate(UPDATE_COST_BASIS_SQL, batchArgs, COST_BASIS_ARG_TYPES));
+                batchArgs.clear();
+            }
+        }
+        if (!batchArgs.isEmpty()) {
+            updated += sum(jdbcTemplate.batchUpdate(UPDATE_COST_BASIS_SQL, batchArgs, COST_BASIS_ARG_TYPES));
+        }
+        return updated;
+    }
+    
+    @Override
+    public int remarkAll(BigDecimal currentPrice) {
+        return jdbcTemplate.update(REMARK_SQL,
+                new Object[]{currentPrice, currentPrice, currentPrice, currentPrice, currentPrice}, REMARK_ARG_TYPES);
+    }
+    
+    @Override
+    public long streamByMinHolding(BigDecimal minHolding, Consumer<AaveHolder> action) {
+        long[] count = new long[1];
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(STREAM_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            statement.setBigDecimal(1, minHolding);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            action.accept(mapRow(rs));
+            count[0]++;
+        });
+        return count[0];
+    }
+    
+    private static AaveHolder mapRow(ResultSet rs) throws SQLException {
+        return AaveHolder.builder()
+                .id(rs.getLong("id"))
+                .walletAddress(Address.fromBytes(rs.getBytes("wallet_address")))
+                .holdingAmount(rs.getBigDecimal("holding_amount"))
+                .firstPurchaseTime(toLocalDateTime(rs.getTimestamp("first_purchase_time")))
+                .firstPurchasePrice(rs.getBigDecimal("first_purchase_price"))
+                .firstPurchaseAmount(rs.getBigDecimal("first_purchase_amount"))
+                .currentPrice(rs.getBigDecimal("current_price"))
+                .costBasis(rs.getBigDecimal("cost_basis"))
+                .currentValue(rs.getBigDecimal("current_value"))
+                .profitLoss(rs.getBigDecimal("profit_loss"))
+                .profitLossPercentage(rs.getBigDecimal("profit_loss_percentage"))
+                .dataSource(rs.getString("data_source"))
+                .lastUpdated(toLocalDateTime(rs.getTimestamp("last_updated")))
+                .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+                .build();
+    }
+    
+    /**
+     * 根据数据库类型选择upsert语句
+     */
+    private String getUpsertSql() {
+        if (upsertSql == null) {
+            String productName;
+            try {
+                productName = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                        DatabaseMetaData::getDatabaseProductName);
+            } catch (MetaDataAccessException e) {
+                throw new IllegalStateException("Unable to determine database type for holder upserts", e);
+            }
+            upsertSql = "MySQL".equalsIgnoreCase(productName) ? MYSQL_UPSERT_SQL : H2_UPSERT_SQL;
+            log.debug("Using {} upsert statement for aave_holders", productName);
+        }
+        return upsertSql;
+    }
+    
+    private static Timestamp toTimestamp(LocalDateTime time) {
+        return time != null ? Timestamp.valueOf(time) : null;
+    }
+    
+    /**
+     * 汇总批处理的更新行数，驱动返回SUCCESS_NO_INFO时按1行计
+     */
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += count >= 0 ? count : 1;
+        }
+        return total;
+    }
+    
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
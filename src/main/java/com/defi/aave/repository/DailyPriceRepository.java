@@ -0,0 +1,14 @@
+package com.defi.aave.repository;
+
+import com.defi.aave.entity.DailyPrice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+/**
+ * AAVE每日历史价格数据访问接口
+ */
+@Repository
+public interface DailyPriceRepository extends JpaRepository<DailyPrice, LocalDate> {
+}
@@ -0,0 +1,12 @@
+package com.defi.aave.repository;
+
+import com.defi.aave.entity.SyncCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 同步检查点数据访问接口
+ */
+@Repository
+public interface SyncCheckpointRepository extends JpaRepository<SyncCheckpoint, String> {
+}
@@ -0,0 +1,51 @@
+package com.defi.aave.repository;
+
+import com.defi.aave.entity.TokenTransfer;
+import com.defi.aave.model.Address;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * AAVE代币转账记录数据访问接口
+ */
+@Repository
+public interface TokenTransferRepository extends JpaRepository<TokenTransfer, Long>, TokenTransferRepositoryCustom {
+    
+    /**
+     * 按接收地址汇总区块号不大于maxBlock的转入数量，每行为 [toAddress(Address), sum(value)]
+     */
+    @Query("SELECT t.toAddress, SUM(t.value) FROM TokenTransfer t WHERE t.blockNumber <= :maxBlock "
+            + "GROUP BY t.toAddress")
+    List<Object[]> sumValueGroupByToAddress(@Param("maxBlock") long maxBlock);
+    
+    /**
+     * 按转出地址汇总区块号不大于maxBlock的转出数量，每行为 [fromAddress(Address), sum(value)]
+     */
+    @Query("SELECT t.fromAddress, SUM(t.value) FROM TokenTransfer t WHERE t.blockNumber <= :maxBlock "
+            + "GROUP BY t.fromAddress")
+    List<Object[]> sumValueGroupByFromAddress(@Param("maxBlock") long maxBlock);
+    
+    /**
+     * 区块号在 (fromBlock, toBlock] 范围内的转账的全部接收地址
+     */
+    @Query("SELECT DISTINCT t.toAddress FROM TokenTransfer t "
+            + "WHERE t.blockNumber > :fromBlock AND t.blockNumber <= :toBlock")
+    List<Address> findToAddressesInBlockRange(@Param("fromBlock") long fromBlock, @Param("toBlock") long toBlock);
+    
+    /**
+     * 区块号在 (fromBlock, toBlock] 范围内的转账的全部转出地址
+     */
+    @Query("SELECT DISTINCT t.fromAddress FROM TokenTransfer t "
+            + "WHERE t.blockNumber > :fromBlock AND t.blockNumber <= :toBlock")
+    List<Address> findFromAddressesInBlockRange(@Param("fromBlock") long fromBlock, @Param("toBlock") long toBlock);
+    
+    /**
+     * 已保存的最大区块号
+     */
+    @Query("SELECT MAX(t.blockNumber) FROM TokenTransfer t")
+    Long findMaxBlockNumber();
+}
@@ -0,0 +1,41 @@
+package com.defi.aave.repository;
+
+import com.defi.aave.model.Address;
+import com.defi.aave.model.TransferRecord;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * AAVE代币转账记录自定义数据访问接口
+ */
+public interface TokenTransferRepositoryCustom {
+    
+    /**
+     * 以只进游标按 (区块号, id) 升序逐条读取全部转账记录，每条交给action处理
+     * 结果集按批次从数据库拉取，内存占用与总行数无关
+     * @return 读取的记录数
+     */
+    long streamInBlockOrder(Consumer<TransferRecord> action);
+    
+    /**
+     * 同streamInBlockOrder，只读取区块号大于afterBlock的转账记录
+     * @return 读取的记录数
+     */
+    long streamAfterBlock(long afterBlock, Consumer<TransferRecord> action);
+    
+    /**
+     * 按 (区块号, id) 升序读取转出或转入地址在addresses中的转账记录，每条交给action处理
+     * 分别通过转出地址和转入地址索引查询，读取量与这些地址的转账数成正比，与账本总量无关；
+     * 同一条记录只回调一次。addresses的数量由调用方控制在IN列表的合理长度内
+     * @return 读取的记录数
+     */
+    long streamByAddresses(Collection<Address> addresses, Consumer<TransferRecord> action);
+    
+    /**
+     * 批量插入转账记录（JDBC批处理），id由数据库自增生成
+     * IDENTITY主键下Hibernate无法批量插入，saveAll会逐行执行INSERT
+     * @return 插入的行数
+     */
+    int insertAll(Collection<TransferRecord> records);
+}
@@ -0,0 +1,141 @@
+package com.defi.aave.repository;
+
+import com.defi.aave.model.Address;
+import com.defi.aave.model.Hex;
+import com.defi.aave.model.TransferRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * AAVE代币转账记录自定义数据访问实现
+ * 重放账本时使用只进游标逐行回调，直接映射为TransferRecord，不经过持久化上下文；
+ * 按地址读取时用UNION分别走转出地址和转入地址索引，避免OR条件退化为全表扫描；
+ * 写入使用JDBC批处理，不受IDENTITY主键下Hibernate无法批量插入的限制
+ */
+public class TokenTransferRepositoryImpl implements TokenTransferRepositoryCustom {
+    
+    /**
+     * 每次从数据库拉取的行数（MySQL需在连接串中开启useCursorFetch才按批拉取）
+     */
+    private static final int STREAM_FETCH_SIZE = 5000;
+    
+    private static final String STREAM_SQL =
+            "SELECT block_number, block_timestamp, tx_hash, from_address, to_address, raw_value "
+                    + "FROM aave_token_transfers WHERE block_number > ? ORDER BY block_number, id";
+    
+    /**
+     * 每个JDBC批次的最大行数
+     */
+    private static final int BATCH_SIZE = 500;
+    
+    private static final String INSERT_SQL =
+            "INSERT INTO aave_token_transfers (block_number, block_timestamp, tx_hash, from_address, to_address, "
+                    + "raw_value) VALUES (?, ?, ?, ?, ?, ?)";
+    
+    private static final int[] INSERT_ARG_TYPES = {
+            Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.BINARY, Types.BINARY, Types.DECIMAL
+    };
+    
+    private static final String COLUMNS =
+            "SELECT id, block_number, block_timestamp, tx_hash, from_address, to_address, raw_value "
+                    + "FROM aave_token_transfers ";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public long streamInBlockOrder(Consumer<TransferRecord> action) {
+        return streamAfterBlock(-1, action);
+    }
+    
+    @Override
+    public long streamAfterBlock(long afterBlock, Consumer<TransferRecord> action) {
+        long[] count = new long[1];
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(STREAM_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            statement.setLong(1, afterBlock);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            action.accept(mapRecord(rs));
+            count[0]++;
+        });
+        return count[0];
+    }
+    
+    @Override
+    public long streamByAddresses(Collection<Address> addresses, Consumer<TransferRecord> action) {
+        if (addresses.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(addresses.size(), "?"));
+        String sql = COLUMNS + "WHERE from_address IN (" + placeholders + ") UNION "
+                + COLUMNS + "WHERE to_address IN (" + placeholders + ") ORDER BY block_number, id";
+        long[] count = new long[1];
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            int index = 1;
+            for (int pass = 0; pass < 2; pass++) {
+                for (Address address : addresses) {
+                    statement.setBytes(index++, address.toBytes());
+                }
+            }
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            action.accept(mapRecord(rs));
+            count[0]++;
+        });
+        return count[0];
+    }
+    
+    @Override
+    public int insertAll(Collection<TransferRecord> records) {
+        List<Object[]> batchArgs = new ArrayList<>(Math.min(records.size(), BATCH_SIZE));
+        int inserted = 0;
+        for (TransferRecord record : records) {
+            batchArgs.add(new Object[]{
+                    record.getBlockNumber(),
+                    record.getTimestamp(),
+                    Hex.encode(record.getTxHash()),
+                    record.getFrom().toBytes(),
+                    record.getTo().toBytes(),
+                    new BigDecimal(record.getValue())
+            });
+            if (batchArgs.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batchArgs, INSERT_ARG_TYPES);
+                inserted += batchArgs.size();
+                batchArgs.clear();
+            }
+        }
+        if (!batchArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batchArgs, INSERT_ARG_TYPES);
+            inserted += batchArgs.size();
+        }
+        return inserted;
+    }
+    
+    private static TransferRecord mapRecord(ResultSet rs) throws SQLException {
+        return new TransferRecord(
+                rs.getLong("block_number"),
+                rs.getLong("block_timestamp"),
+                Hex.decode(rs.getString("tx_hash"), TransferRecord.HASH_LENGTH),
+                Address.fromBytes(rs.getBytes("from_address")),
+                Address.fromBytes(rs.getBytes("to_address")),
+                rs.getBigDecimal("raw_value").toBigIntegerExact());
+    }
+}
@@ -7,23 +7,50 @@ import com.defi.aave.dto.HolderDto;
 import com.defi.aave.dto.PageDto;
 import com.defi.aave.dto.SyncResultDto;
 import com.defi.aave.entity.AaveHolder;
+import com.defi.aave.entity.SyncCheckpoint;
+import com.defi.aave.model.Address;
 import com.defi.aave.repository.AaveHolderRepository;
+import com.defi.aave.repository.SyncCheckpointRepository;
+import com.defi.aave.repository.TokenTransferRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
+import javax.annotation.PostConstruct;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 /**
@@ -34,6 +61,24 @@ import java.util.stream.Collectors;
 @Service
 public class AaveHolderService {
     
+    /**
+     * 按地址批量查询时每个IN列表的最大长度
+     */
+    private static final int ADDRESS_QUERY_CHUNK_SIZE = 500;
+    
+    /**
+     * 键集分页首页使用的排序键边界，超出持仓量和收益率列的取值范围
+     */
+    private static final BigDecimal KEYSET_MAX = new BigDecimal("1E30");
+    private static final BigDecimal KEYSET_MIN = KEYSET_MAX.negate();
+    
+    /**
+     * 持有者同步检查点：该区块及之前的转账涉及的地址均已写入持有者表
+     */
+    private static final String HOLDERS_CHECKPOINT = "aave_holders";
+    
+    private static final String DATA_VERSION_EPOCH = Long.toString(System.currentTimeMillis(), 36);
+    
     @Autowired
     private AaveHolderRepository aaveHolderRepository;
     
@@ -43,78 +88,171 @@ public class AaveHolderService {
     @Autowired
     private CoinGeckoApiClient coinGeckoApiClient;
     
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+    
+    @Autowired
+    private PriceBackfillService priceBackfillService;
+    
+    @Autowired
+    private TransferIngestionService transferIngestionService;
+    
+    @Autowired
+    private BalanceLedgerService balanceLedgerService;
+    
+    @Autowired
+    private TokenTransferRepository tokenTransferRepository;
+    
+    @Autowired
+    private SyncCheckpointRepository syncCheckpointRepository;
+    
+    @Autowired
+    private CostBasisService costBasisService;
+    
+    @Autowired
+    private HolderRankingIndex holderRankingIndex;
+    
+    @Autowired
+    private Cache<HolderPageKey, PageDto<HolderDto>> holderPageCache;
+    
+    @Autowired
+    private Cache<Address, HolderDto> holderDtoCache;
+    
     @Autowired
     private AaveProperties aaveProperties;
     
+    @Autowired
+    @Qualifier("holderSyncExecutor")
+    private ThreadPoolTaskExecutor holderSyncExecutor;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Counter balanceMismatchCounter;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    private Scheduler workerScheduler;
+    
+    private final TransactionTemplate readOnlyTransaction;
+    
+    /**
+     * 持有者写入锁：同步批次和余额刷新先读取持有者、再以内存中的成本整行upsert，
+     * 持仓成本重算和按价格重新估值只更新部分列，两类写入并发时后者的结果会被覆盖，因此串行执行
+     */
+    private final ReentrantLock holderWriteLock = new ReentrantLock();
+    
+    @Autowired
+    public AaveHolderService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+    
+    @PostConstruct
+    public void init() {
+        workerScheduler = Schedulers.fromExecutor(holderSyncExecutor);
+        balanceMismatchCounter = Counter.builder("aave.refresh.balance.mismatches")
+                .description("Refreshed holders whose ledger balance differs from Etherscan tokenbalance")
+                .register(meterRegistry);
+    }
+    
     /**
      * 同步AAVE持有者数据
+     * 不在整个同步过程上开启事务：按批次读取和写入，每个批次使用独立的短事务，
+     * 外部API调用期间不占用数据库连接
      */
-    @Transactional
     public SyncResultDto syncHolders() {
+        return syncHolders(new SyncProgress());
+    }
+    
+    /**
+     * 同步AAVE持有者数据，并将进度实时记录到传入的计数器
+     * @throws RuntimeException 无法获取当前价格、拉取转账记录或写入失败时抛出，由调用方标记任务失败
+     */
+    public SyncResultDto syncHolders(SyncProgress progress) {
         LocalDateTime startTime = LocalDateTime.now();
         log.info("Starting AAVE holders sync at {}", startTime);
         
-        int totalProcessed = 0;
-        int successCount = 0;
-        int failedCount = 0;
+        // 获取当前AAVE价格
+        BigDecimal currentPrice = coinGeckoApiClient.getCurrentPrice();
+        if (currentPrice == null) {
+            throw new RuntimeException("Failed to get current AAVE price");
+        }
         
+        // 批量回填历史价格，使后续成本计算变为内存查找
         try {
-            // 获取当前AAVE价格
-            BigDecimal currentPrice = coinGeckoApiClient.getCurrentPrice();
-            if (currentPrice == null) {
-                throw new RuntimeException("Failed to get current AAVE price");
-            }
-            
-            // 获取持有者地址列表
-            List<String> holderAddresses = etherscanApiClient.getTopHolders();
-            log.info("Found {} potential holder addresses", holderAddresses.size());
-            
-            // 批量处理
-            int batchSize = aaveProperties.getSync().getBatchSize();
-            for (int i = 0; i < holderAddresses.size(); i += batchSize) {
-                int end = Math.min(i + batchSize, holderAddresses.size());
-                List<String> batch = holderAddresses.subList(i, end);
-                
-                for (String address : batch) {
-                    totalProcessed++;
-                    try {
-                        boolean success = processHolder(address, currentPrice);
-                        if (success) {
-                            successCount++;
-                        } else {
-                            failedCount++;
-                        }
-                    } catch (Exception e) {
-                        log.error("Failed to process holder {}: {}", address, e.getMessage());
-                        failedCount++;
-                    }
-                }
-                
-                // 批次间延迟，避免API限流
-                if (end < holderAddresses.size()) {
-                    try {
-                        Thread.sleep(1000);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
-                }
-            }
-            
+            priceBackfillService.backfill();
         } catch (Exception e) {
-            log.error("Error during sync: {}", e.getMessage(), e);
+            log.warn("Price backfill failed, falling back to per-day lookups: {}", e.getMessage());
+        }
+        
+        // 增量拉取新的转账记录；拉取中途失败时，已提交的页照常处理，处理完毕后再报告失败
+        RuntimeException ingestFailure = null;
+        try {
+            int ingested = transferIngestionService.ingest();
+            log.info("Ingested {} new transfers", ingested);
+        } catch (RuntimeException e) {
+            log.warn("Transfer ingestion stopped early, processing committed transfers first: {}", e.getMessage());
+            ingestFailure = e;
+        }
+        
+        // 账本从数据库追赶到最新区块；持有者检查点之后的转账涉及的地址即待处理的地址，
+        // 检查点只在这些地址全部写入后前移，同步中断时下次会重新处理
+        long ledgerBlock = balanceLedgerService.catchUp();
+        long processedBlock = syncCheckpointRepository.findById(HOLDERS_CHECKPOINT)
+                .map(SyncCheckpoint::getBlockNumber)
+                .orElse(aaveProperties.getSync().getStartBlock() - 1);
+        List<Address> changedAddresses = findChangedAddresses(processedBlock, ledgerBlock);
+        log.info("Found {} addresses with changed balances in blocks {}..{}",
+                changedAddresses.size(), processedBlock + 1, ledgerBlock);
+        
+        BigDecimal minHolding = new BigDecimal(aaveProperties.getToken().getMinHolding());
+        spotCheckBalances(changedAddresses.stream()
+                .filter(address -> balanceLedgerService.getBalance(address).compareTo(minHolding) >= 0)
+                .collect(Collectors.toList()));
+        
+        // 按批次处理，每批的读取、外部API调用和写入依次进行
+        int batchSize = aaveProperties.getSync().getBatchSize();
+        for (int i = 0; i < changedAddresses.size(); i += batchSize) {
+            int end = Math.min(i + batchSize, changedAddresses.size());
+            syncBatch(changedAddresses.subList(i, end), currentPrice, minHolding, progress);
+            log.info("Processed {}/{} changed addresses", end, changedAddresses.size());
+        }
+        
+        // 首次转入只能反映一次买入，按完整转账记录重算这些地址的持仓成本
+        if (Boolean.TRUE.equals(aaveProperties.getCostBasis().getRecomputeAfterSync())
+                && !changedAddresses.isEmpty()) {
+            recomputeCostBasis(changedAddresses,
+                    CostBasisService.Method.parse(aaveProperties.getCostBasis().getMethod()));
+        }
+        
+        if (ledgerBlock > processedBlock) {
+            transactionTemplate.execute(status -> syncCheckpointRepository.save(SyncCheckpoint.builder()
+                    .name(HOLDERS_CHECKPOINT)
+                    .blockNumber(ledgerBlock)
+                    .build()));
+        }
+        if (ingestFailure != null) {
+            throw ingestFailure;
         }
         
         LocalDateTime endTime = LocalDateTime.now();
         long durationSeconds = java.time.Duration.between(startTime, endTime).getSeconds();
         
-        log.info("Sync completed. Total: {}, Success: {}, Failed: {}, Duration: {}s", 
-                totalProcessed, successCount, failedCount, durationSeconds);
+        log.info("Sync completed. Total: {}, Success: {}, Failed: {}, Skipped: {}, Rows written: {} ({} rows/s), "
+                        + "Duration: {}s",
+                progress.getTotalProcessed(), progress.getSuccessCount(), progress.getFailedCount(),
+                progress.getSkippedCount(),
+                progress.getRowsWritten(), String.format("%.1f", progress.getRowsPerSecond()), durationSeconds);
         
         return SyncResultDto.builder()
-                .totalProcessed(totalProcessed)
-                .successCount(successCount)
-                .failedCount(failedCount)
+                .totalProcessed(progress.getTotalProcessed())
+                .successCount(progress.getSuccessCount())
+                .failedCount(progress.getFailedCount())
+                .skippedCount(progress.getSkippedCount())
+                .rowsWritten(progress.getRowsWritten())
+                .rowsPerSecond(progress.getRowsPerSecond())
                 .startTime(startTime.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")))
                 .endTime(endTime.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")))
                 .durationSeconds(durationSeconds)
@@ -122,88 +260,393 @@ public class AaveHolderService {
     }
     
     /**
-     * 处理单个持有者
+     * 区块号在 (fromBlock, toBlock] 范围内的转账涉及的地址（不含零地址）
+     */
+    private List<Address> findChangedAddresses(long fromBlock, long toBlock) {
+        if (toBlock <= fromBlock) {
+            return Collections.emptyList();
+        }
+        Set<Address> changed = new LinkedHashSet<>();
+        readOnlyTransaction.execute(status -> {
+            changed.addAll(tokenTransferRepository.findToAddressesInBlockRange(fromBlock, toBlock));
+            changed.addAll(tokenTransferRepository.findFromAddressesInBlockRange(fromBlock, toBlock));
+            return null;
+        });
+        changed.remove(Address.ZERO);
+        return new ArrayList<>(changed);
+    }
+    
+    /**
+     * 同步一批余额发生变化的地址
+     * 1. 只读短事务批量读取已入库的持有者
+     * 2. 无事务状态下以非阻塞方式并发调用外部API分析新持有者，已知首次购买信息的持有者只在内存中重新估值
+     * 3. 写事务内一次性批量upsert，提交后本批实体随持久化上下文一起释放
      */
-    private boolean processHolder(String address, BigDecimal currentPrice) {
+    private void syncBatch(List<Address> addresses, BigDecimal currentPrice, BigDecimal minHolding,
+                           SyncProgress progress) {
+        holderWriteLock.lock();
         try {
-            // 获取余额
-            BigDecimal balance = etherscanApiClient.getTokenBalance(address);
-            
-            // 检查是否满足最小持仓量
-            BigDecimal minHolding = new BigDecimal(aaveProperties.getToken().getMinHolding());
-            if (balance.compareTo(minHolding) < 0) {
-                log.debug("Address {} holding {} is below minimum {}", address, balance, minHolding);
-                return false;
+            doSyncBatch(addresses, currentPrice, minHolding, progress);
+        } finally {
+            holderWriteLock.unlock();
+        }
+    }
+    
+    private void doSyncBatch(List<Address> addresses, BigDecimal currentPrice, BigDecimal minHolding,
+                             SyncProgress progress) {
+        Map<Address, AaveHolder> existingHolders = readOnlyTransaction.execute(status -> findExistingHolders(addresses));
+        
+        List<AaveHolder> toWrite = new ArrayList<>(addresses.size());
+        List<Address> analyzing = new ArrayList<>();
+        List<CompletableFuture<AaveHolder>> futures = new ArrayList<>();
+        int skipped = 0;
+        for (Address address : addresses) {
+            BigDecimal balance = balanceLedgerService.getBalance(address);
+            AaveHolder existing = existingHolders.get(address);
+            if (existing != null && existing.getFirstPurchaseTime() != null) {
+                // 首次购买信息不会变化，只需按新余额重新估值
+                applyValuation(existing, balance, currentPrice);
+                toWrite.add(existing);
+            } else if (existing != null || balance.compareTo(minHolding) >= 0) {
+                analyzing.add(address);
+                futures.add(processHolderAsync(address, balance, currentPrice));
+            } else {
+                skipped++;
             }
+        }
+        progress.recordSuccess(toWrite.size());
+        progress.recordSkipped(skipped);
+        
+        for (int j = 0; j < futures.size(); j++) {
+            AaveHolder holder = null;
+            try {
+                holder = futures.get(j).join();
+            } catch (CompletionException e) {
+                log.error("Failed to process holder {}: {}", analyzing.get(j), e.getCause().getMessage());
+            }
+            if (holder != null) {
+                toWrite.add(holder);
+                progress.recordSuccess(1);
+            } else {
+                // 分析失败时仍按余额写入（不含首次购买信息），地址不会因检查点前移而丢失，下次余额变化时重新分析
+                Address address = analyzing.get(j);
+                BigDecimal balance = balanceLedgerService.getBalance(address);
+                AaveHolder existing = existingHolders.get(address);
+                if (existing != null) {
+                    applyValuation(existing, balance, currentPrice);
+                    toWrite.add(existing);
+                } else {
+                    toWrite.add(buildHolder(address, null, balance, currentPrice));
+                }
+                progress.recordFailure();
+            }
+        }
+        
+        long writeStart = System.nanoTime();
+        Integer written = transactionTemplate.execute(status -> aaveHolderRepository.upsertAll(toWrite));
+        progress.recordWrite(written != null ? written : 0, System.nanoTime() - writeStart);
+        publishWritten(toWrite);
+    }
+    
+    /**
+     * 刷新指定持有者：按本地账本余额和当前价格重新估值，只写回这些持有者
+     * 余额以账本为准；写入后再调用Etherscan tokenbalance核对，不一致时只记录告警并计入
+     * aave.refresh.balance.mismatches指标，不写入API返回的余额。每个地址消耗一次Etherscan API调用
+     * @return 成功刷新的持有者数
+     */
+    public int refreshHolders(List<Address> addresses) {
+        BigDecimal currentPrice = coinGeckoApiClient.getCurrentPrice();
+        if (currentPrice == null) {
+            log.warn("Skipping holder refresh: current AAVE price unavailable");
+            return 0;
+        }
+        
+        List<AaveHolder> refreshed;
+        holderWriteLock.lock();
+        try {
+            refreshed = doRefreshHolders(addresses, currentPrice);
+        } finally {
+            holderWriteLock.unlock();
+        }
+        // 核对在写入锁之外进行，等待API响应期间不阻塞同步批次
+        reconcileBalances(refreshed);
+        return refreshed.size();
+    }
+    
+    private List<AaveHolder> doRefreshHolders(List<Address> addresses, BigDecimal currentPrice) {
+        // 账本在首次调用时才从转账记录重建，重启后首次同步之前刷新也必须读到完整余额
+        balanceLedgerService.catchUp();
+        Map<Address, AaveHolder> holders = readOnlyTransaction.execute(status -> findExistingHolders(addresses));
+        List<AaveHolder> refreshed = new ArrayList<>(holders.values());
+        for (AaveHolder holder : refreshed) {
+            applyValuation(holder, balanceLedgerService.getBalance(holder.getWalletAddress()), currentPrice);
+        }
+        
+        transactionTemplate.execute(status -> aaveHolderRepository.upsertAll(refreshed));
+        publishWritten(refreshed);
+        return refreshed;
+    }
+    
+    /**
+     * 以非阻塞方式并发查询Etherscan余额，与已写入的账本余额比较
+     */
+    private void reconcileBalances(List<AaveHolder> holders) {
+        List<CompletableFuture<BigDecimal>> futures = new ArrayList<>(holders.size());
+        for (AaveHolder holder : holders) {
+            futures.add(etherscanApiClient.getTokenBalanceAsync(holder.getWalletAddress()).toFuture());
+        }
+        
+        int checked = 0;
+        int mismatches = 0;
+        for (int i = 0; i < holders.size(); i++) {
+            AaveHolder holder = holders.get(i);
+            BigDecimal apiBalance;
+            try {
+                apiBalance = futures.get(i).join();
+            } catch (CompletionException e) {
+                log.warn("Balance check skipped for {}: {}", holder.getWalletAddress(), e.getCause().getMessage());
+                continue;
+            }
+            checked++;
+            if (holder.getHoldingAmount().compareTo(apiBalance) != 0) {
+                mismatches++;
+                balanceMismatchCounter.increment();
+                log.warn("Balance mismatch for {}: ledger {}, Etherscan {}",
+                        holder.getWalletAddress(), holder.getHoldingAmount(), apiBalance);
+            }
+        }
+        log.info("Refresh balance check: {}/{} holders match Etherscan", checked - mismatches, checked);
+    }
+    
+    /**
+     * 按完整转账记录重新计算持有者的持仓成本，并分批写回成本、收益和收益率
+     * 收益按数据库中当前的持仓价值计算，不调用外部API，也不覆盖余额等其他字段
+     * @param addresses 为null时重新计算全部已入库的持有者
+     * @return 更新的持有者数
+     */
+    public int recomputeCostBasis(Collection<Address> addresses, CostBasisService.Method method) {
+        return recomputeCostBasis(addresses, method, new SyncProgress());
+    }
+    
+    /**
+     * 同recomputeCostBasis，并将写入的行数实时记录到传入的计数器
+     * 指定地址时只按地址索引读取这些地址的转账，全量重算时顺序扫描一次完整账本
+     */
+    public int recomputeCostBasis(Collection<Address> addresses, CostBasisService.Method method,
+                                  SyncProgress progress) {
+        long start = System.nanoTime();
+        Map<Address, BigDecimal> computed;
+        if (addresses != null) {
+            computed = costBasisService.compute(addresses, method);
+        } else {
+            List<Address> all = readOnlyTransaction.execute(status -> aaveHolderRepository.findAllRefreshKeys())
+                    .stream()
+                    .map(row -> (Address) row[0])
+                    .collect(Collectors.toList());
+            computed = costBasisService.computeFromFullLedger(all, method);
+        }
+        
+        List<Map.Entry<Address, BigDecimal>> costBasis = new ArrayList<>(computed.entrySet());
+        int updated = 0;
+        for (int i = 0; i < costBasis.size(); i += ADDRESS_QUERY_CHUNK_SIZE) {
+            Map<Address, BigDecimal> chunk = new LinkedHashMap<>();
+            for (Map.Entry<Address, BigDecimal> entry
+                    : costBasis.subList(i, Math.min(i + ADDRESS_QUERY_CHUNK_SIZE, costBasis.size()))) {
+                chunk.put(entry.getKey(), entry.getValue());
+            }
+            holderWriteLock.lock();
+            try {
+                long writeStart = System.nanoTime();
+                Integer written = transactionTemplate.execute(status -> aaveHolderRepository.updateCostBasis(chunk));
+                int rows = written != null ? written : 0;
+                progress.recordSuccess(rows);
+                progress.recordWrite(rows, System.nanoTime() - writeStart);
+                updated += rows;
+                publishWritten(readOnlyTransaction.execute(status -> findExistingHolders(chunk.keySet())).values());
+            } finally {
+                holderWriteLock.unlock();
+            }
+        }
+        log.info("Recomputed {} cost basis for {} holders in {}ms", method, updated,
+                (System.nanoTime() - start) / 1_000_000);
+        return updated;
+    }
+    
+    /**
+     * 按最新价格重新估值全部持有者，在数据库中一次性重算持仓价值、收益和收益率
+     * 只查询一次当前价格（通常命中价格缓存），不调用Etherscan接口
+     * @return 更新的持有者数；价格未变化时为0
+     * @throws IllegalStateException 无法获取当前价格
+     */
+    public int remarkHolders() {
+        BigDecimal currentPrice = coinGeckoApiClient.getCurrentPrice();
+        if (currentPrice == null) {
+            throw new IllegalStateException("Current AAVE price unavailable");
+        }
+        
+        long start = System.nanoTime();
+        Integer updated;
+        holderWriteLock.lock();
+        try {
+            updated = transactionTemplate.execute(status -> aaveHolderRepository.remarkAll(currentPrice));
+            if (updated == null || updated == 0) {
+                return 0;
+            }
+            // 全部估值字段都已变化，直接丢弃索引和详情缓存，下次查询时重建
+            holderRankingIndex.invalidate();
+            holderDtoCache.invalidateAll();
+        } finally {
+            holderWriteLock.unlock();
+        }
+        log.info("Re-marked {} holders at ${} in {}ms", updated, currentPrice,
+                (System.nanoTime() - start) / 1_000_000);
+        return updated;
+    }
+    
+    /**
+     * 将已提交的写入同步到内存排名索引和持有者详情缓存
+     * 详情缓存只更新已缓存的地址，避免全量同步挤掉热点地址
+     */
+    private void publishWritten(Collection<AaveHolder> holders) {
+        holderRankingIndex.apply(holders);
+        ConcurrentMap<Address, HolderDto> cached = holderDtoCache.asMap();
+        for (AaveHolder holder : holders) {
+            cached.replace(holder.getWalletAddress(), convertToDto(holder));
+        }
+    }
+    
+    /**
+     * 批量查询已入库的持有者，按地址分块使用IN查询
+     */
+    private Map<Address, AaveHolder> findExistingHolders(Collection<Address> addresses) {
+        Map<Address, AaveHolder> holders = new HashMap<>();
+        List<Address> list = new ArrayList<>(addresses);
+        for (int i = 0; i < list.size(); i += ADDRESS_QUERY_CHUNK_SIZE) {
+            List<Address> chunk = list.subList(i, Math.min(i + ADDRESS_QUERY_CHUNK_SIZE, list.size()));
+            for (AaveHolder holder : aaveHolderRepository.findByWalletAddressIn(chunk)) {
+                holders.put(holder.getWalletAddress(), holder);
+            }
+        }
+        return holders;
+    }
+    
+    /**
+     * 抽样调用Etherscan tokenbalance接口核对账本余额
+     * 账本仅在转账记录完整时准确，不一致时记录告警
+     */
+    private void spotCheckBalances(List<Address> addresses) {
+        int samples = Math.min(aaveProperties.getSync().getBalanceSpotChecks(), addresses.size());
+        if (samples <= 0) {
+            return;
+        }
+        List<Address> shuffled = new ArrayList<>(addresses);
+        Collections.shuffle(shuffled);
+        int checked = 0;
+        int mismatches = 0;
+        for (Address address : shuffled.subList(0, samples)) {
+            BigDecimal ledgerBalance = balanceLedgerService.getBalance(address);
+            BigDecimal apiBalance;
+            try {
+                apiBalance = etherscanApiClient.getTokenBalance(address);
+            } catch (RuntimeException e) {
+                log.warn("Balance spot check skipped for {}: {}", address, e.getMessage());
+                continue;
+            }
+            checked++;
+            if (ledgerBalance.compareTo(apiBalance) != 0) {
+                mismatches++;
+                log.warn("Balance mismatch for {}: ledger {}, Etherscan {}", address, ledgerBalance, apiBalance);
+            }
+        }
+        log.info("Balance spot check: {}/{} addresses match Etherscan", checked - mismatches, checked);
+    }
+    
+    /**
+     * 处理单个持有者：查询首次购买信息并计算收益
+     * 交易历史以非阻塞方式获取，等待响应期间不占用线程
+     * @param balance 本地账本计算的余额
+     * @return 完成时为待写入的持有者记录，失败时为null
+     */
+    private CompletableFuture<AaveHolder> processHolderAsync(Address address, BigDecimal balance,
+                                                             BigDecimal currentPrice) {
+        log.info("Processing holder {} with balance {}", address, balance);
+        
+        return etherscanApiClient.getFirstIncomingTransactionAsync(address)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                // 历史价格可能回退到阻塞的API调用和数据库查询，切换到工作线程池执行
+                .publishOn(workerScheduler)
+                .map(firstTx -> buildHolder(address, firstTx.orElse(null), balance, currentPrice))
+                .onErrorResume(e -> {
+                    log.error("Error processing holder {}: {}", address, e.getMessage());
+                    return Mono.empty();
+                })
+                .toFuture();
+    }
+    
+    /**
+     * 根据首次购买交易构建持有者记录
+     * @param firstTx 首次接收AAVE的交易，未找到时为null
+     */
+    private AaveHolder buildHolder(Address address, EtherscanApiClient.TokenTransaction firstTx,
+                                   BigDecimal balance, BigDecimal currentPrice) {
+        AaveHolder holder = AaveHolder.builder()
+                .walletAddress(address)
+                .build();
+        
+        // 如果找到首次交易，获取历史价格
+        if (firstTx != null) {
+            long timestamp = Long.parseLong(firstTx.getTimeStamp());
+            LocalDateTime purchaseTime = LocalDateTime.ofInstant(
+                    Instant.ofEpochSecond(timestamp), 
+                    ZoneId.systemDefault()
+            );
             
-            log.info("Processing holder {} with balance {}", address, balance);
-            
-            // 获取首次购买信息
-            EtherscanApiClient.TokenTransaction firstTx = etherscanApiClient.getFirstIncomingTransaction(address);
+            BigDecimal purchaseAmount = new BigDecimal(firstTx.getValue())
+                    .divide(new BigDecimal("1000000000000000000"), 18, RoundingMode.HALF_UP);
             
-            AaveHolder holder = AaveHolder.builder()
-                    .walletAddress(address)
-                    .holdingAmount(balance)
-                    .currentPrice(currentPrice)
-                    .currentValue(balance.multiply(currentPrice))
-                    .build();
+            BigDecimal historicalPrice = priceHistoryService.getPriceAt(timestamp);
             
-            // 如果找到首次交易，获取历史价格并计算收益
-            if (firstTx != null) {
-                long timestamp = Long.parseLong(firstTx.getTimeStamp());
-                LocalDateTime purchaseTime = LocalDateTime.ofInstant(
-                        Instant.ofEpochSecond(timestamp), 
-                        ZoneId.systemDefault()
-                );
-                
-                BigDecimal purchaseAmount = new BigDecimal(firstTx.getValue())
-                        .divide(new BigDecimal("1000000000000000000"), 18, RoundingMode.HALF_UP);
-                
-                BigDecimal historicalPrice = coinGeckoApiClient.getHistoricalPrice(timestamp);
-                
-                holder.setFirstPurchaseTime(purchaseTime);
-                holder.setFirstPurchaseAmount(purchaseAmount);
-                
-                if (historicalPrice != null) {
-                    holder.setFirstPurchasePrice(historicalPrice);
-                    
-                    // 计算成本和收益
-                    BigDecimal costBasis = historicalPrice.multiply(purchaseAmount);
-                    holder.setCostBasis(costBasis);
-                    
-                    if (costBasis.compareTo(BigDecimal.ZERO) > 0) {
-                        BigDecimal profitLoss = holder.getCurrentValue().subtract(costBasis);
-                        holder.setProfitLoss(profitLoss);
-                        
-                        BigDecimal profitPercentage = profitLoss
-                                .divide(costBasis, 4, RoundingMode.HALF_UP)
-                                .multiply(new BigDecimal("100"))
-                                .setScale(2, RoundingMode.HALF_UP);
-                        holder.setProfitLossPercentage(profitPercentage);
-                    }
-                }
-            }
+            holder.setFirstPurchaseTime(purchaseTime);
+            holder.setFirstPurchaseAmount(purchaseAmount);
             
-            // 保存或更新
-            AaveHolder existing = aaveHolderRepository.findByWalletAddress(address).orElse(null);
-            if (existing != null) {
-                holder.setId(existing.getId());
-                holder.setCreatedAt(existing.getCreatedAt());
+            if (historicalPrice != null) {
+                holder.setFirstPurchasePrice(historicalPrice);
+                holder.setCostBasis(historicalPrice.multiply(purchaseAmount));
             }
+        }
+        
+        applyValuation(holder, balance, currentPrice);
+        log.info("Analyzed holder {} with profit/loss: {}", 
+                address, holder.getProfitLossPercentage());
+        
+        return holder;
+    }
+    
+    /**
+     * 按余额和当前价格计算持仓价值，并根据购买成本计算收益
+     */
+    private void applyValuation(AaveHolder holder, BigDecimal balance, BigDecimal currentPrice) {
+        holder.setHoldingAmount(balance);
+        holder.setCurrentPrice(currentPrice);
+        holder.setCurrentValue(balance.multiply(currentPrice));
+        
+        BigDecimal costBasis = holder.getCostBasis();
+        if (costBasis != null && costBasis.compareTo(BigDecimal.ZERO) > 0) {
+            BigDecimal profitLoss = holder.getCurrentValue().subtract(costBasis);
+            holder.setProfitLoss(profitLoss);
             
-            aaveHolderRepository.save(holder);
-            log.info("Saved holder {} with profit/loss: {}", 
-                    address, holder.getProfitLossPercentage());
-            
-            return true;
-        } catch (Exception e) {
-            log.error("Error processing holder {}: {}", address, e.getMessage());
-            return false;
+            BigDecimal profitPercentage = profitLoss
+                    .divide(costBasis, 4, RoundingMode.HALF_UP)
+                    .multiply(new BigDecimal("100"))
+                    .setScale(2, RoundingMode.HALF_UP);
+            holder.setProfitLossPercentage(profitPercentage);
         }
     }
     
     /**
      * 查询持有者列表（分页）
+     * 结果按数据版本号缓存，两次同步写入之间的重复查询直接返回缓存结果
      */
     public PageDto<HolderDto> getHolders(Integer page, Integer size, String sortBy, String order, BigDecimal minHolding) {
         // 参数默认值
@@ -213,42 +656,173 @@ public class AaveHolderService {
         order = (order != null && "asc".equalsIgnoreCase(order)) ? "asc" : "desc";
         minHolding = (minHolding != null) ? minHolding : new BigDecimal(aaveProperties.getToken().getMinHolding());
         
-        // 构建排序
-        Sort.Direction direction = "asc".equalsIgnoreCase(order) ? Sort.Direction.ASC : Sort.Direction.DESC;
-        Sort sort = Sort.by(direction, convertSortField(sortBy));
-        Pageable pageable = PageRequest.of(page, size, sort);
+        // 直接由内存排名索引分页，不访问数据库
+        HolderRankingIndex.SortField sortField = "profitLossPercentage".equals(convertSortField(sortBy))
+                ? HolderRankingIndex.SortField.PROFIT_LOSS_PERCENTAGE
+                : HolderRankingIndex.SortField.HOLDING_AMOUNT;
+        int pageNumber = page;
+        int pageSize = size;
+        boolean ascending = "asc".equals(order);
+        BigDecimal min = minHolding;
+        HolderPageKey key = new HolderPageKey(holderRankingIndex.getDataVersion(), null, pageNumber, pageSize,
+                sortField.name(), ascending, min.stripTrailingZeros(), false);
+        return holderPageCache.get(key, k -> holderRankingIndex.page(pageNumber, pageSize, sortField, ascending, min));
+    }
+    
+    /**
+     * 按游标查询持有者列表（键集分页）
+     * 以上一页最后一行的 (排序键, id) 为起点查询，深分页与首页代价相同；
+     * 按收益率排序时收益率为空的持有者排在降序末尾、升序开头
+     * @param cursor 上一页返回的nextCursor，为空时查询第一页
+     * @param withCount 是否执行count查询返回总数
+     */
+    public PageDto<HolderDto> getHoldersByCursor(String cursor, Integer size, String sortBy, String order,
+                                                 BigDecimal minHolding, boolean withCount) {
+        int pageSize = (size != null && size > 0) ? size : 20;
+        String sortField = convertSortField(sortBy);
+        boolean ascending = order != null && "asc".equalsIgnoreCase(order);
+        BigDecimal min = (minHolding != null) ? minHolding : new BigDecimal(aaveProperties.getToken().getMinHolding());
+        HolderCursor after = (cursor != null && !cursor.isEmpty())
+                ? HolderCursor.decode(cursor, sortField, ascending) : null;
         
-        // 查询
-        Page<AaveHolder> holderPage = aaveHolderRepository.findByHoldingAmountGreaterThanEqual(minHolding, pageable);
+        HolderPageKey key = new HolderPageKey(holderRankingIndex.getDataVersion(), after != null ? cursor : "", 0,
+                pageSize, sortField, ascending, min.stripTrailingZeros(), withCount);
+        return holderPageCache.get(key, k -> findPageByCursor(after, pageSize, sortField, ascending, min, withCount));
+    }
+    
+    /**
+     * 校验游标格式及其与排序参数是否匹配，不访问数据库；游标为空时不做校验
+     * 与getHoldersByCursor使用相同的排序参数规则，供控制器在比较ETag之前拒绝不合法的请求
+     * @throws IllegalArgumentException 游标格式不合法或与排序不匹配
+     */
+    public void validateCursor(String cursor, String sortBy, String order) {
+        if (cursor != null && !cursor.isEmpty()) {
+            HolderCursor.decode(cursor, convertSortField(sortBy), order != null && "asc".equalsIgnoreCase(order));
+        }
+    }
+    
+    private PageDto<HolderDto> findPageByCursor(HolderCursor after, int pageSize, String sortField, boolean ascending,
+                                                BigDecimal min, boolean withCount) {
+        // 多取一行用于判断是否还有下一页
+        List<AaveHolder> rows = readOnlyTransaction.execute(status -> "profitLossPercentage".equals(sortField)
+                ? findNextByProfit(after, ascending, min, pageSize + 1)
+                : findNextByAmount(after, ascending, min, pageSize + 1));
         
-        // 转换为DTO
-        List<HolderDto> holderDtos = holderPage.getContent().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        boolean hasNext = rows.size() > pageSize;
+        List<AaveHolder> pageRows = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            AaveHolder last = pageRows.get(pageRows.size() - 1);
+            BigDecimal key = "profitLossPercentage".equals(sortField)
+                    ? last.getProfitLossPercentage() : last.getHoldingAmount();
+            nextCursor = new HolderCursor(sortField, ascending, key, last.getId()).encode();
+        }
         
-        return PageDto.<HolderDto>builder()
-                .content(holderDtos)
-                .totalElements(holderPage.getTotalElements())
-                .totalPages(holderPage.getTotalPages())
-                .currentPage(holderPage.getNumber())
-                .pageSize(holderPage.getSize())
-                .first(holderPage.isFirst())
-                .last(holderPage.isLast())
-                .build();
+        PageDto.PageDtoBuilder<HolderDto> result = PageDto.<HolderDto>builder()
+                .content(pageRows.stream().map(AaveHolderService::convertToDto).collect(Collectors.toList()))
+                .pageSize(pageSize)
+                .first(after == null)
+                .last(!hasNext)
+                .nextCursor(nextCursor);
+        if (withCount) {
+            long total = aaveHolderRepository.countByHoldingAmountGreaterThanEqual(min);
+            result.totalElements(total).totalPages((int) ((total + pageSize - 1) / pageSize));
+        }
+        return result.build();
+    }
+    
+    private List<AaveHolder> findNextByAmount(HolderCursor after, boolean ascending, BigDecimal minHolding,
+                                              int limit) {
+        Pageable pageable = PageRequest.of(0, limit);
+        if (ascending) {
+            return after == null
+                    ? aaveHolderRepository.findNextByHoldingAmountAsc(minHolding, KEYSET_MIN, Long.MIN_VALUE, pageable)
+                    : aaveHolderRepository.findNextByHoldingAmountAsc(minHolding, after.getKey(), after.getId(), pageable);
+        }
+        return after == null
+                ? aaveHolderRepository.findNextByHoldingAmountDesc(minHolding, KEYSET_MAX, Long.MAX_VALUE, pageable)
+                : aaveHolderRepository.findNextByHoldingAmountDesc(minHolding, after.getKey(), after.getId(), pageable);
+    }
+    
+    /**
+     * 收益率排序分为收益率非空和为空两段分别做键集查询：降序先非空段后空段，升序相反
+     */
+    private List<AaveHolder> findNextByProfit(HolderCursor after, boolean ascending, BigDecimal minHolding,
+                                              int limit) {
+        boolean inNullSegment = after != null && after.getKey() == null;
+        List<AaveHolder> rows = new ArrayList<>(limit);
+        if (ascending) {
+            if (after == null || inNullSegment) {
+                rows.addAll(aaveHolderRepository.findNextWithoutProfitAsc(minHolding,
+                        after == null ? Long.MIN_VALUE : after.getId(), PageRequest.of(0, limit)));
+            }
+            if (rows.size() < limit) {
+                rows.addAll(inNullSegment || after == null
+                        ? aaveHolderRepository.findNextByProfitPercentageAsc(minHolding, KEYSET_MIN, Long.MIN_VALUE,
+                                PageRequest.of(0, limit - rows.size()))
+                        : aaveHolderRepository.findNextByProfitPercentageAsc(minHolding, after.getKey(), after.getId(),
+                                PageRequest.of(0, limit - rows.size())));
+            }
+        } else {
+            if (!inNullSegment) {
+                rows.addAll(after == null
+                        ? aaveHolderRepository.findNextByProfitPercentageDesc(minHolding, KEYSET_MAX, Long.MAX_VALUE,
+                                PageRequest.of(0, limit))
+                        : aaveHolderRepository.findNextByProfitPercentageDesc(minHolding, after.getKey(), after.getId(),
+                                PageRequest.of(0, limit)));
+            }
+            if (rows.size() < limit) {
+                rows.addAll(aaveHolderRepository.findNextWithoutProfitDesc(minHolding,
+                        inNullSegment ? after.getId() : Long.MAX_VALUE, PageRequest.of(0, limit - rows.size())));
+            }
+        }
+        return rows;
     }
     
     /**
      * 根据地址查询持有者详情
      */
     public HolderDto getHolderByAddress(String address) {
-        AaveHolder holder = aaveHolderRepository.findByWalletAddress(address)
-                .orElse(null);
-        
-        if (holder == null) {
-            return null;
+        // 未命中时查询数据库，地址不存在时不缓存
+        return holderDtoCache.get(Address.of(address), key -> aaveHolderRepository.findByWalletAddress(key)
+                .map(AaveHolderService::convertToDto)
+                .orElse(null));
+    }
+    
+    /**
+     * 批量查询持有者详情
+     * 先读详情缓存，未命中的地址按块使用IN查询一次性加载
+     * @return 按请求顺序以小写地址为键的映射，地址不存在时值为null，重复地址只保留一项
+     * @throws IllegalArgumentException 存在格式不合法的地址
+     */
+    public Map<String, HolderDto> getHoldersByAddresses(List<String> addresses) {
+        Set<Address> keys = new LinkedHashSet<>();
+        for (String address : addresses) {
+            keys.add(Address.of(address));
         }
         
-        return convertToDto(holder);
+        Map<Address, HolderDto> found = holderDtoCache.getAll(keys, missing -> {
+            List<Address> toLoad = new ArrayList<>();
+            missing.forEach(toLoad::add);
+            Map<Address, AaveHolder> holders = readOnlyTransaction.execute(status -> findExistingHolders(toLoad));
+            Map<Address, HolderDto> loaded = new HashMap<>();
+            holders.forEach((address, holder) -> loaded.put(address, convertToDto(holder)));
+            return loaded;
+        });
+        
+        Map<String, HolderDto> result = new LinkedHashMap<>();
+        for (Address key : keys) {
+            result.put(key.toString(), found.get(key));
+        }
+        return result;
+    }
+    
+    /**
+     * 当前持有者数据的版本标识，数据被同步修改后改变
+     * 包含进程启动时间，重启后版本号从0重新计数时不会与之前的标识相同
+     */
+    public String getDataVersionTag() {
+        return DATA_VERSION_EPOCH + "-" + holderRankingIndex.getDataVersion();
     }
     
     /**
@@ -264,9 +838,9 @@ public class AaveHolderService {
     /**
      * 实体转DTO
      */
-    private HolderDto convertToDto(AaveHolder holder) {
+    static HolderDto convertToDto(AaveHolder holder) {
         return HolderDto.builder()
-                .walletAddress(holder.getWalletAddress())
+                .walletAddress(holder.getWalletAddress().toString())
                 .holdingAmount(holder.getHoldingAmount())
                 .firstPurchaseTime(holder.getFirstPurchaseTime())
                 .firstPurchasePrice(holder.getFirstPurchasePrice())
@@ -280,4 +854,25 @@ public class AaveHolderService {
                 .lastUpdated(holder.getLastUpdated())
                 .build();
     }
+    
+    /**
+     * 列表查询结果缓存的键
+     * 包含数据版本号，同步写入后版本号递增，旧版本的缓存项不再命中并按容量淘汰
+     */
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    public static final class HolderPageKey {
+        private final long dataVersion;
+        
+        /**
+         * 游标分页的游标（第一页为空串），偏移分页为null
+         */
+        private final String cursor;
+        private final int page;
+        private final int size;
+        private final String sortBy;
+        private final boolean ascending;
+        private final BigDecimal minHolding;
+        private final boolean withCount;
+    }
 }
@@ -0,0 +1,96 @@
+package com.defi.aave.service;
+
+import com.defi.aave.model.Address;
+import com.defi.aave.repository.TokenTransferRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AAVE余额账本服务
+ * 根据本地保存的转账记录累加 from/to/value 增量计算每个地址的余额，每次同步前从数据库追赶新写入的转账，
+ * 替代逐个地址调用Etherscan tokenbalance接口
+ * 注意：余额仅在转账记录从合约部署区块开始完整同步时准确
+ */
+@Slf4j
+@Service
+public class BalanceLedgerService {
+    
+    private static final int TOKEN_DECIMALS = 18;
+    
+    @Autowired
+    private TokenTransferRepository tokenTransferRepository;
+    
+    private final Map<Address, BigInteger> balances = new ConcurrentHashMap<>();
+    
+    /**
+     * 已计入账本的最后区块号，数据库中区块号更大的转账记录尚未计入
+     */
+    private long lastAppliedBlock = -1;
+    
+    private boolean loaded = false;
+    
+    /**
+     * 将数据库中尚未计入账本的转账记录（区块号大于已计入的最后区块）按区块顺序累加到余额
+     * 以转账记录表为准，不依赖调用方传入的列表：上次同步中途失败时已提交的转账同样会被计入
+     * @return 已计入账本的最后区块号
+     */
+    public synchronized long catchUp() {
+        if (!loaded) {
+            load();
+            return lastAppliedBlock;
+        }
+        
+        long[] maxBlock = {lastAppliedBlock};
+        long applied = tokenTransferRepository.streamAfterBlock(lastAppliedBlock, record -> {
+            credit(record.getFrom(), record.getValue().negate());
+            credit(record.getTo(), record.getValue());
+            maxBlock[0] = Math.max(maxBlock[0], record.getBlockNumber());
+        });
+        if (applied > 0) {
+            log.info("Applied {} transfers to balance ledger, blocks {}..{}", applied, lastAppliedBlock + 1, maxBlock[0]);
+        }
+        lastAppliedBlock = maxBlock[0];
+        return lastAppliedBlock;
+    }
+    
+    /**
+     * 获取地址余额（代币单位，18位小数）
+     */
+    public BigDecimal getBalance(Address address) {
+        BigInteger raw = balances.get(address);
+        return raw == null ? BigDecimal.ZERO : new BigDecimal(raw, TOKEN_DECIMALS);
+    }
+    
+    private void credit(Address address, BigInteger delta) {
+        if (address.isZero() || delta.signum() == 0) {
+            return;
+        }
+        BigInteger balance = balances.merge(address, delta, BigInteger::add);
+        if (balance.signum() == 0) {
+            balances.remove(address);
+        }
+    }
+    
+    /**
+     * 首次使用时从数据库汇总转账记录重建余额
+     * 先确定最大区块号，汇总时只统计该区块及之前的记录，与之后写入的转账互不重叠
+     */
+    private void load() {
+        Long maxBlock = tokenTransferRepository.findMaxBlockNumber();
+        lastAppliedBlock = maxBlock != null ? maxBlock : -1;
+        for (Object[] row : tokenTransferRepository.sumValueGroupByToAddress(lastAppliedBlock)) {
+            credit((Address) row[0], (BigInteger) row[1]);
+        }
+        for (Object[] row : tokenTransferRepository.sumValueGroupByFromAddress(lastAppliedBlock)) {
+            credit((Address) row[0], ((BigInteger) row[1]).negate());
+        }
+        loaded = true;
+        log.info("Rebuilt balance ledger for {} addresses up to block {}", balances.size(), lastAppliedBlock);
+    }
+}
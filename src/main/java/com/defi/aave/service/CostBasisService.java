@@ -0,0 +1,258 @@
+package com.defi.aave.service;
+
+import com.defi.aave.model.Address;
+import com.defi.aave.model.TransferRecord;
+import com.defi.aave.repository.TokenTransferRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 持仓成本计算服务
+ * 按区块顺序重放地址的完整转账记录：每笔转入按当日价格形成一个批次，转出按FIFO或移动平均法冲减，
+ * 剩余持仓的成本即为持仓成本。指定地址时按地址索引只读取这些地址的转账，全量重算时账本只扫描一次；
+ * 各地址的重放相互独立，在多核上并行执行
+ */
+@Slf4j
+@Service
+public class CostBasisService {
+    
+    public enum Method {
+        FIFO, AVERAGE;
+        
+        /**
+         * 解析成本计算方法（大小写不敏感）
+         * @throws IllegalArgumentException 不支持的方法
+         */
+        public static Method parse(String method) {
+            for (Method value : values()) {
+                if (value.name().equalsIgnoreCase(method)) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported cost basis method: " + method);
+        }
+    }
+    
+    private static final int TOKEN_DECIMALS = 18;
+    private static final int COST_SCALE = 8;
+    private static final long SECONDS_PER_DAY = 86400L;
+    
+    /**
+     * 按地址读取转账时每次查询的地址数
+     */
+    private static final int ADDRESS_CHUNK_SIZE = 500;
+    
+    @Autowired
+    private TokenTransferRepository tokenTransferRepository;
+    
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+    
+    /**
+     * 计算指定地址的持仓成本（USD）
+     * 按地址分块通过转出、转入地址索引读取转账记录，读取量只与这些地址的转账数有关，适合同步后的增量重算
+     * @return 地址到持仓成本的映射；剩余持仓中有转入日期缺少价格的地址不包含在内
+     */
+    public Map<Address, BigDecimal> compute(Collection<Address> addresses, Method method) {
+        long start = System.nanoTime();
+        List<Address> targets = new ArrayList<>(new LinkedHashSet<>(addresses));
+        Ledgers ledgers = new Ledgers();
+        long scanned = 0;
+        for (int i = 0; i < targets.size(); i += ADDRESS_CHUNK_SIZE) {
+            List<Address> chunk = targets.subList(i, Math.min(i + ADDRESS_CHUNK_SIZE, targets.size()));
+            // 只记录本块内地址的变动：跨块转账会在两个块中各读到一次，分别计入转出方和转入方
+            Set<Address> chunkTargets = new HashSet<>(chunk);
+            scanned += tokenTransferRepository.streamByAddresses(chunk, record -> ledgers.add(record, chunkTargets));
+        }
+        return replay(ledgers, targets.size(), scanned, method, start);
+    }
+    
+    /**
+     * 顺序扫描完整账本计算指定地址的持仓成本（USD），用于重算全部持有者
+     * 地址数接近全部持有者时，一次顺序扫描比按地址分块查询的总读取量更小
+     * @return 地址到持仓成本的映射；剩余持仓中有转入日期缺少价格的地址不包含在内
+     */
+    public Map<Address, BigDecimal> computeFromFullLedger(Collection<Address> addresses, Method method) {
+        long start = System.nanoTime();
+        Set<Address> targets = new HashSet<>(addresses);
+        Ledgers ledgers = new Ledgers();
+        long scanned = tokenTransferRepository.streamInBlockOrder(record -> ledgers.add(record, targets));
+        return replay(ledgers, targets.size(), scanned, method, start);
+    }
+    
+    /**
+     * 转入的日期价格在重放前统一查询，每个日期只查询一次，重放过程只做内存计算
+     */
+    private Map<Address, BigDecimal> replay(Ledgers ledgers, int targetCount, long scanned, Method method,
+                                            long start) {
+        Map<Long, BigDecimal> prices = resolvePrices(ledgers.days);
+        Map<Address, BigDecimal> result = ledgers.movements.entrySet().parallelStream()
+                .map(entry -> new AbstractMap.SimpleImmutableEntry<>(entry.getKey(),
+                        method == Method.FIFO ? replayFifo(entry.getValue(), prices)
+                                : replayAverage(entry.getValue(), prices)))
+                .filter(entry -> entry.getValue() != null)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        
+        log.info("Computed {} cost basis for {}/{} addresses from {} transfers ({} price days) in {}ms",
+                method, result.size(), targetCount, scanned, prices.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+    
+    private Map<Long, BigDecimal> resolvePrices(Set<Long> days) {
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        for (Long day : days) {
+            BigDecimal price = priceHistoryService.getPriceOn(LocalDate.ofEpochDay(day));
+            if (price != null) {
+                prices.put(day, price);
+            }
+        }
+        return prices;
+    }
+    
+    /**
+     * FIFO：转出依次冲减最早的转入批次
+     * 转出超过已记录的转入（转账记录不完整）时，超出部分忽略
+     */
+    private static BigDecimal replayFifo(Movements movements, Map<Long, BigDecimal> prices) {
+        Deque<Lot> lots = new ArrayDeque<>();
+        for (int i = 0; i < movements.size; i++) {
+            BigInteger amount = movements.amounts[i];
+            if (amount.signum() > 0) {
+                lots.addLast(new Lot(amount, prices.get(movements.days[i])));
+                continue;
+            }
+            BigInteger remaining = amount.negate();
+            while (remaining.signum() > 0 && !lots.isEmpty()) {
+                Lot head = lots.peekFirst();
+                if (head.quantity.compareTo(remaining) <= 0) {
+                    remaining = remaining.subtract(head.quantity);
+                    lots.pollFirst();
+                } else {
+                    head.quantity = head.quantity.subtract(remaining);
+                    remaining = BigInteger.ZERO;
+                }
+            }
+        }
+        
+        BigDecimal cost = BigDecimal.ZERO;
+        for (Lot lot : lots) {
+            if (lot.price == null) {
+                return null;
+            }
+            cost = cost.add(lot.price.multiply(new BigDecimal(lot.quantity, TOKEN_DECIMALS)));
+        }
+        return cost.setScale(COST_SCALE, RoundingMode.HALF_UP);
+    }
+    
+    /**
+     * 移动平均：转入按当日价格累加成本，转出按持仓比例冲减成本
+     * 持仓清零后重新开始计算，此前缺少价格的转入不再影响结果
+     */
+    private static BigDecimal replayAverage(Movements movements, Map<Long, BigDecimal> prices) {
+        BigInteger quantity = BigInteger.ZERO;
+        BigDecimal cost = BigDecimal.ZERO;
+        boolean unpriced = false;
+        for (int i = 0; i < movements.size; i++) {
+            BigInteger amount = movements.amounts[i];
+            if (amount.signum() > 0) {
+                BigDecimal price = prices.get(movements.days[i]);
+                if (price == null) {
+                    unpriced = true;
+                } else {
+                    cost = cost.add(price.multiply(new BigDecimal(amount, TOKEN_DECIMALS)));
+                }
+                quantity = quantity.add(amount);
+                continue;
+            }
+            if (quantity.signum() == 0) {
+                continue;
+            }
+            BigInteger out = amount.negate().min(quantity);
+            BigInteger left = quantity.subtract(out);
+            cost = cost.multiply(new BigDecimal(left))
+                    .divide(new BigDecimal(quantity), MathContext.DECIMAL128);
+            quantity = left;
+            if (quantity.signum() == 0) {
+                cost = BigDecimal.ZERO;
+                unpriced = false;
+            }
+        }
+        return unpriced ? null : cost.setScale(COST_SCALE, RoundingMode.HALF_UP);
+    }
+    
+    /**
+     * 按区块顺序收集目标地址的余额变动和需要查询价格的转入日期
+     */
+    private static final class Ledgers {
+        final Map<Address, Movements> movements = new HashMap<>();
+        final Set<Long> days = new HashSet<>();
+        
+        void add(TransferRecord record, Set<Address> targets) {
+            if (record.getValue().signum() == 0 || record.getFrom().equals(record.getTo())) {
+                return;
+            }
+            long day = Math.floorDiv(record.getTimestamp(), SECONDS_PER_DAY);
+            if (targets.contains(record.getTo())) {
+                movements.computeIfAbsent(record.getTo(), key -> new Movements()).add(day, record.getValue());
+                days.add(day);
+            }
+            if (targets.contains(record.getFrom())) {
+                movements.computeIfAbsent(record.getFrom(), key -> new Movements())
+                        .add(day, record.getValue().negate());
+            }
+        }
+    }
+    
+    /**
+     * 持仓批次（FIFO）
+     */
+    private static final class Lot {
+        BigInteger quantity;
+        final BigDecimal price;
+        
+        Lot(BigInteger quantity, BigDecimal price) {
+            this.quantity = quantity;
+            this.price = price;
+        }
+    }
+    
+    /**
+     * 单个地址按区块顺序的余额变动（转入为正、转出为负），以数组保存
+     */
+    private static final class Movements {
+        long[] days = new long[4];
+        BigInteger[] amounts = new BigInteger[4];
+        int size;
+        
+        void add(long day, BigInteger amount) {
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                amounts = Arrays.copyOf(amounts, size * 2);
+            }
+            days[size] = day;
+            amounts[size] = amount;
+            size++;
+        }
+    }
+}
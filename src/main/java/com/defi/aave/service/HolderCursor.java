@@ -0,0 +1,72 @@
+package com.defi.aave.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 持有者列表的分页游标（不可变）
+ * 记录上一页最后一行的排序键和id，对外编码为不透明的Base64 URL安全字符串；
+ * 游标绑定排序字段和方向，换用其他排序时视为无效游标
+ */
+public final class HolderCursor {
+    
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+    private static final String NULL_KEY = "-";
+    
+    private final String sortBy;
+    private final boolean ascending;
+    
+    /**
+     * 排序键，收益率为空的行为null
+     */
+    private final BigDecimal key;
+    private final long id;
+    
+    public HolderCursor(String sortBy, boolean ascending, BigDecimal key, long id) {
+        this.sortBy = sortBy;
+        this.ascending = ascending;
+        this.key = key;
+        this.id = id;
+    }
+    
+    public String encode() {
+        String raw = VERSION + SEPARATOR + sortBy + SEPARATOR + (ascending ? "asc" : "desc") + SEPARATOR
+                + (key != null ? key.toPlainString() : NULL_KEY) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * 解析游标并校验与本次请求的排序一致
+     * @throws IllegalArgumentException 游标格式不合法或与排序不匹配
+     */
+    public static HolderCursor decode(String cursor, String sortBy, boolean ascending) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != 5 || !VERSION.equals(parts[0])) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (!parts[1].equals(sortBy) || !parts[2].equals(ascending ? "asc" : "desc")) {
+            throw new IllegalArgumentException("Cursor does not match sortBy/order of this request");
+        }
+        try {
+            BigDecimal key = NULL_KEY.equals(parts[3]) ? null : new BigDecimal(parts[3]);
+            return new HolderCursor(sortBy, ascending, key, Long.parseLong(parts[4]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+    
+    public BigDecimal getKey() {
+        return key;
+    }
+    
+    public long getId() {
+        return id;
+    }
+}
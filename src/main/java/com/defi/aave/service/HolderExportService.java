@@ -0,0 +1,146 @@
+package com.defi.aave.service;
+
+import com.defi.aave.config.AaveProperties;
+import com.defi.aave.dto.HolderDto;
+import com.defi.aave.repository.AaveHolderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 持有者全量导出服务
+ * 从数据库游标逐行读取并直接写入输出流，不在内存中累积结果
+ */
+@Slf4j
+@Service
+public class HolderExportService {
+    
+    public enum Format {
+        NDJSON, CSV
+    }
+    
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    
+    private static final String CSV_HEADER = "walletAddress,holdingAmount,firstPurchaseTime,firstPurchasePrice,"
+            + "firstPurchaseAmount,currentPrice,costBasis,currentValue,profitLoss,profitLossPercentage,"
+            + "dataSource,lastUpdated";
+    
+    @Autowired
+    private AaveHolderRepository aaveHolderRepository;
+    
+    @Autowired
+    private AaveProperties aaveProperties;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    /**
+     * 解析导出格式（大小写不敏感）
+     * @throws IllegalArgumentException 不支持的格式
+     */
+    public static Format parseFormat(String format) {
+        for (Format value : Format.values()) {
+            if (value.name().equalsIgnoreCase(format)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + format);
+    }
+    
+    /**
+     * 按id顺序导出持仓量不低于minHolding的全部持有者
+     * NDJSON每行一个与列表接口字段相同的JSON对象；CSV首行为表头
+     * @param minHolding 为null时使用配置的最小持仓量
+     * @return 导出的行数
+     */
+    public long export(BigDecimal minHolding, Format format, OutputStream out) throws IOException {
+        BigDecimal min = (minHolding != null) ? minHolding : new BigDecimal(aaveProperties.getToken().getMinHolding());
+        long start = System.nanoTime();
+        long rows;
+        try {
+            rows = format == Format.CSV ? exportCsv(min, out) : exportNdjson(min, out);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("Exported {} holders as {} in {}ms", rows, format, (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+    
+    private long exportNdjson(BigDecimal minHolding, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (SequenceWriter sequence = objectMapper.writer().withRootValueSeparator("\n").writeValues(writer)) {
+            long rows = aaveHolderRepository.streamByMinHolding(minHolding, holder -> {
+                try {
+                    sequence.write(AaveHolderService.convertToDto(holder));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (rows > 0) {
+                sequence.flush();
+                writer.write('\n');
+            }
+            return rows;
+        }
+    }
+    
+    private long exportCsv(BigDecimal minHolding, OutputStream out) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            StringBuilder line = new StringBuilder(256);
+            return aaveHolderRepository.streamByMinHolding(minHolding, holder -> {
+                HolderDto dto = AaveHolderService.convertToDto(holder);
+                line.setLength(0);
+                line.append(dto.getWalletAddress()).append(',')
+                        .append(plain(dto.getHoldingAmount())).append(',')
+                        .append(format(dto.getFirstPurchaseTime())).append(',')
+                        .append(plain(dto.getFirstPurchasePrice())).append(',')
+                        .append(plain(dto.getFirstPurchaseAmount())).append(',')
+                        .append(plain(dto.getCurrentPrice())).append(',')
+                        .append(plain(dto.getCostBasis())).append(',')
+                        .append(plain(dto.getCurrentValue())).append(',')
+                        .append(plain(dto.getProfitLoss())).append(',')
+                        .append(plain(dto.getProfitLossPercentage())).append(',')
+                        .append(escapeCsv(dto.getDataSource())).append(',')
+                        .append(format(dto.getLastUpdated())).append('\n');
+                try {
+                    writer.append(line);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+    
+    private static String plain(BigDecimal value) {
+        return value != null ? value.toPlainString() : "";
+    }
+    
+    private static String format(LocalDateTime time) {
+        return time != null ? time.format(TIME_FORMATTER) : "";
+    }
+    
+    private static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,321 @@
+package com.defi.aave.service;
+
+import com.defi.aave.dto.HolderDto;
+import com.defi.aave.dto.PageDto;
+import com.defi.aave.entity.AaveHolder;
+import com.defi.aave.model.Address;
+import com.defi.aave.repository.AaveHolderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 持有者内存排名索引
+ * 排序字段以基本类型数组保存（持仓量按8位小数、收益率按2位小数缩放为long），
+ * 并维护按持仓量和按收益率降序排列的两个下标数组，分页查询直接在内存中完成，不访问数据库；
+ * 同步写入后只对变更的持有者排序再与原排序数组归并，读取方始终看到一致的不可变快照；
+ * 按收益率排序并按最小持仓量过滤时，快照对最近使用的minHolding缓存一份过滤后的收益率顺序，
+ * 换用其他minHolding时重建一次（O(n)），之后每页只需O(size)
+ * 行数据直接保存为HolderDto，分页时无需转换，内存占用随持有者数线性增长
+ */
+@Slf4j
+@Service
+public class HolderRankingIndex {
+    
+    public enum SortField {
+        HOLDING_AMOUNT, PROFIT_LOSS_PERCENTAGE
+    }
+    
+    private static final int AMOUNT_SCALE = 8;
+    private static final int PROFIT_SCALE = 2;
+    
+    /**
+     * 收益率为空时的取值，排序时视为最小值（与MySQL中NULL的排序位置一致）
+     */
+    private static final long NO_PROFIT = Long.MIN_VALUE;
+    
+    private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+    private static final BigInteger LONG_MIN = BigInteger.valueOf(Long.MIN_VALUE + 1);
+    
+    @Autowired
+    private AaveHolderRepository aaveHolderRepository;
+    
+    private volatile Snapshot snapshot;
+    
+    /**
+     * 数据版本号，合并同步写入或丢弃索引时递增
+     */
+    private final AtomicLong dataVersion = new AtomicLong();
+    
+    /**
+     * 查询持仓量不低于minHolding的持有者（分页）
+     */
+    public PageDto<HolderDto> page(int page, int size, SortField sortField, boolean ascending, BigDecimal minHolding) {
+        Snapshot current = ensureLoaded();
+        long minScaled = toScaledLong(minHolding, AMOUNT_SCALE);
+        int matching = current.countAtLeast(minHolding, minScaled);
+        long from = (long) page * size;
+        
+        List<HolderDto> content = new ArrayList<>(Math.min(size, matching));
+        if (sortField == SortField.HOLDING_AMOUNT) {
+            // 满足条件的持有者是持仓量降序数组的前缀
+            for (long i = from; i < Math.min(from + size, matching); i++) {
+                int position = ascending ? matching - 1 - (int) i : (int) i;
+                content.add(current.rows[current.byAmount[position]]);
+            }
+        } else {
+            int[] order = current.profitOrderAtLeast(minHolding, minScaled);
+            for (long i = from; i < Math.min(from + size, order.length); i++) {
+                int position = ascending ? order.length - 1 - (int) i : (int) i;
+                content.add(current.rows[order[position]]);
+            }
+        }
+        
+        int totalPages = (int) (((long) matching + size - 1) / size);
+        return PageDto.<HolderDto>builder()
+                .content(content)
+                .totalElements((long) matching)
+                .totalPages(totalPages)
+                .currentPage(page)
+                .pageSize(size)
+                .first(page == 0)
+                .last(page >= totalPages - 1)
+                .build();
+    }
+    
+    /**
+     * 合并刚写入数据库的持有者，同一地址以新值为准
+     */
+    public synchronized void apply(Collection<AaveHolder> holders) {
+        if (holders.isEmpty()) {
+            return;
+        }
+        snapshot = ensureLoaded().merge(holders);
+        dataVersion.incrementAndGet();
+    }
+    
+    /**
+     * 丢弃索引，下次查询时从数据库重建
+     */
+    public synchronized void invalidate() {
+        snapshot = null;
+        dataVersion.incrementAndGet();
+    }
+    
+    /**
+     * 当前数据版本号，版本号不变期间持有者数据未被同步修改，可用于缓存失效判断
+     */
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+    
+    private Snapshot ensureLoaded() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    long start = System.nanoTime();
+                    snapshot = Snapshot.EMPTY.merge(aaveHolderRepository.findAll());
+                    log.info("Built holder ranking index for {} holders in {}ms",
+                            snapshot.rows.length, (System.nanoTime() - start) / 1_000_000);
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+    
+    /**
+     * 按指定小数位向下取整缩放为long，超出范围时取边界值
+     */
+    private static long toScaledLong(BigDecimal value, int scale) {
+        BigInteger scaled = value.setScale(scale, RoundingMode.FLOOR).unscaledValue();
+        return scaled.max(LONG_MIN).min(LONG_MAX).longValue();
+    }
+    
+    @FunctionalInterface
+    private interface SlotComparator {
+        int compare(int a, int b);
+    }
+    
+    /**
+     * 索引快照（不可变），以槽位下标关联各数组
+     */
+    private static final class Snapshot {
+        
+        static final Snapshot EMPTY = new Snapshot(Collections.emptyMap(), new Address[0], new HolderDto[0],
+                new long[0], new long[0], new int[0], new int[0]);
+        
+        final Map<Address, Integer> slots;
+        final Address[] addresses;
+        final HolderDto[] rows;
+        final long[] amounts;
+        final long[] profits;
+        final int[] byAmount;
+        final int[] byProfit;
+        
+        /**
+         * 最近一次使用的minHolding过滤后的收益率降序数组
+         */
+        private volatile FilteredOrder profitFiltered;
+        
+        Snapshot(Map<Address, Integer> slots, Address[] addresses, HolderDto[] rows,
+                 long[] amounts, long[] profits, int[] byAmount, int[] byProfit) {
+            this.slots = slots;
+            this.addresses = addresses;
+            this.rows = rows;
+            this.amounts = amounts;
+            this.profits = profits;
+            this.byAmount = byAmount;
+            this.byProfit = byProfit;
+        }
+        
+        Snapshot merge(Collection<AaveHolder> holders) {
+            Map<Address, AaveHolder> changes = new LinkedHashMap<>();
+            for (AaveHolder holder : holders) {
+                changes.put(holder.getWalletAddress(), holder);
+            }
+            
+            Map<Address, Integer> newSlots = new HashMap<>(slots);
+            int count = rows.length;
+            for (Address address : changes.keySet()) {
+                if (!newSlots.containsKey(address)) {
+                    newSlots.put(address, count++);
+                }
+            }
+            
+            Address[] newAddresses = Arrays.copyOf(addresses, count);
+            HolderDto[] newRows = Arrays.copyOf(rows, count);
+            long[] newAmounts = Arrays.copyOf(amounts, count);
+            long[] newProfits = Arrays.copyOf(profits, count);
+            boolean[] changed = new boolean[count];
+            int[] changedSlots = new int[changes.size()];
+            int k = 0;
+            for (Map.Entry<Address, AaveHolder> entry : changes.entrySet()) {
+                int slot = newSlots.get(entry.getKey());
+                AaveHolder holder = entry.getValue();
+                newAddresses[slot] = entry.getKey();
+                newRows[slot] = AaveHolderService.convertToDto(holder);
+                newAmounts[slot] = toScaledLong(holder.getHoldingAmount(), AMOUNT_SCALE);
+                newProfits[slot] = holder.getProfitLossPercentage() != null
+                        ? toScaledLong(holder.getProfitLossPercentage(), PROFIT_SCALE) : NO_PROFIT;
+                changed[slot] = true;
+                changedSlots[k++] = slot;
+            }
+            
+            // 持仓量降序，相同时按精确值降序，再按地址升序保证顺序稳定
+            SlotComparator amountDesc = (a, b) -> {
+                int result = Long.compare(newAmounts[b], newAmounts[a]);
+                if (result == 0) {
+                    result = newRows[b].getHoldingAmount().compareTo(newRows[a].getHoldingAmount());
+                }
+                return result != 0 ? result : newAddresses[a].compareTo(newAddresses[b]);
+            };
+            SlotComparator profitDesc = (a, b) -> {
+                int result = Long.compare(newProfits[b], newProfits[a]);
+                return result != 0 ? result : amountDesc.compare(a, b);
+            };
+            
+            return new Snapshot(newSlots, newAddresses, newRows, newAmounts, newProfits,
+                    mergeOrder(byAmount, changed, changedSlots, amountDesc),
+                    mergeOrder(byProfit, changed, changedSlots, profitDesc));
+        }
+        
+        /**
+         * 持仓量不低于minHolding的持有者数量：在降序数组上二分查找边界，
+         * 缩放值与边界相等时再以精确值判断
+         */
+        int countAtLeast(BigDecimal minHolding, long minScaled) {
+            int low = 0;
+            int high = byAmount.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (amounts[byAmount[mid]] >= minScaled) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            while (low > 0 && !meetsMin(byAmount[low - 1], minHolding, minScaled)) {
+                low--;
+            }
+            return low;
+        }
+        
+        /**
+         * 持仓量不低于minHolding的持有者按收益率降序排列的槽位，minHolding与上次相同时直接复用
+         */
+        int[] profitOrderAtLeast(BigDecimal minHolding, long minScaled) {
+            FilteredOrder cached = profitFiltered;
+            if (cached != null && cached.minHolding.compareTo(minHolding) == 0) {
+                return cached.order;
+            }
+            int[] order = new int[countAtLeast(minHolding, minScaled)];
+            int out = 0;
+            for (int slot : byProfit) {
+                if (meetsMin(slot, minHolding, minScaled)) {
+                    order[out++] = slot;
+                }
+            }
+            profitFiltered = new FilteredOrder(minHolding, order);
+            return order;
+        }
+        
+        boolean meetsMin(int slot, BigDecimal minHolding, long minScaled) {
+            long amount = amounts[slot];
+            return amount > minScaled
+                    || (amount == minScaled && rows[slot].getHoldingAmount().compareTo(minHolding) >= 0);
+        }
+        
+        /**
+         * 从原排序数组中移除变更的槽位，与排好序的变更槽位归并
+         */
+        private static int[] mergeOrder(int[] order, boolean[] changed, int[] changedSlots,
+                                        SlotComparator comparator) {
+            Integer[] sortedChanges = new Integer[changedSlots.length];
+            for (int i = 0; i < changedSlots.length; i++) {
+                sortedChanges[i] = changedSlots[i];
+            }
+            Arrays.sort(sortedChanges, comparator::compare);
+            
+            int[] merged = new int[changed.length];
+            int i = 0;
+            int j = 0;
+            int out = 0;
+            while (i < order.length || j < sortedChanges.length) {
+                if (i < order.length && changed[order[i]]) {
+                    i++;
+                } else if (j >= sortedChanges.length
+                        || (i < order.length && comparator.compare(order[i], sortedChanges[j]) <= 0)) {
+                    merged[out++] = order[i++];
+                } else {
+                    merged[out++] = sortedChanges[j++];
+                }
+            }
+            return merged;
+        }
+    }
+    
+    private static final class FilteredOrder {
+        final BigDecimal minHolding;
+        final int[] order;
+        
+        FilteredOrder(BigDecimal minHolding, int[] order) {
+            this.minHolding = minHolding;
+            this.order = order;
+        }
+    }
+}
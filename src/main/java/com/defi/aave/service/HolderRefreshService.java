@@ -0,0 +1,160 @@
+package com.defi.aave.service;
+
+import com.defi.aave.config.AaveProperties;
+import com.defi.aave.model.Address;
+import com.defi.aave.repository.AaveHolderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 持有者定时增量刷新服务
+ * 按 数据陈旧时间 × 持仓量 计算优先级，每次只刷新优先级最高的一批持有者：按账本余额和最新价格重新估值，
+ * 并调用Etherscan核对余额；刷新数量受每分钟API调用预算限制，使大额持仓的估值在两次全量同步之间保持最新；
+ * 全量同步开始后在下一块之前停止刷新
+ */
+@Slf4j
+@Service
+public class HolderRefreshService {
+    
+    /**
+     * 每块刷新的持有者数，每块之前重新检查是否有全量同步在运行
+     */
+    private static final int REFRESH_CHUNK_SIZE = 10;
+    
+    /**
+     * 选择刷新对象时每次按持仓量读取的行数
+     */
+    private static final int SCAN_PAGE_SIZE = 500;
+    
+    /**
+     * 键集扫描首页使用的持仓量边界，超出持仓量列的取值范围
+     */
+    private static final BigDecimal SCAN_START_AMOUNT = new BigDecimal("1E30");
+    
+    @Autowired
+    private AaveHolderRepository aaveHolderRepository;
+    
+    @Autowired
+    private AaveHolderService aaveHolderService;
+    
+    @Autowired
+    private SyncJobService syncJobService;
+    
+    @Autowired
+    private AaveProperties aaveProperties;
+    
+    /**
+     * 定时刷新最陈旧、持仓最大的持有者
+     * 全量同步运行期间跳过，避免重复消耗API配额
+     */
+    @Scheduled(fixedDelayString = "${aave.refresh.interval-ms:60000}",
+            initialDelayString = "${aave.refresh.interval-ms:60000}")
+    public void refreshStalest() {
+        AaveProperties.Refresh refresh = aaveProperties.getRefresh();
+        if (!Boolean.TRUE.equals(refresh.getEnabled()) || syncJobService.isRunning()) {
+            return;
+        }
+        
+        int budget = (int) (refresh.getApiBudgetPerMinute() * refresh.getIntervalMs() / 60000);
+        if (budget <= 0) {
+            return;
+        }
+        
+        List<Address> addresses = selectStalest(budget);
+        if (addresses.isEmpty()) {
+            return;
+        }
+        
+        int refreshed = 0;
+        for (int i = 0; i < addresses.size(); i += REFRESH_CHUNK_SIZE) {
+            if (syncJobService.isRunning()) {
+                log.info("Sync job started, stopping holder refresh after {} holders", i);
+                break;
+            }
+            refreshed += aaveHolderService.refreshHolders(
+                    addresses.subList(i, Math.min(i + REFRESH_CHUNK_SIZE, addresses.size())));
+        }
+        log.info("Refreshed {}/{} stalest holders", refreshed, addresses.size());
+    }
+    
+    /**
+     * 选出优先级最高的limit个持有者，按优先级降序返回
+     * 按持仓量降序分页读取，用容量为limit的最小堆维护Top-K；陈旧时间不超过 当前时间 - 最早更新时间，
+     * 当 持仓量 × 该上界 不大于堆中最小优先级时，后续持有者不可能进入Top-K，提前结束扫描
+     */
+    List<Address> selectStalest(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime oldest = aaveHolderRepository.findOldestLastUpdated();
+        if (oldest == null) {
+            return new ArrayList<>();
+        }
+        long maxAgeSeconds = Math.max(0, Duration.between(oldest, now).getSeconds());
+        PriorityQueue<Candidate> heap = new PriorityQueue<>(limit + 1,
+                Comparator.comparingDouble(candidate -> candidate.priority));
+        
+        BigDecimal lastAmount = SCAN_START_AMOUNT;
+        long lastId = Long.MAX_VALUE;
+        int scanned = 0;
+        scan:
+        while (true) {
+            List<Object[]> rows = aaveHolderRepository.findNextRefreshKeys(lastAmount, lastId,
+                    PageRequest.of(0, SCAN_PAGE_SIZE));
+            for (Object[] row : rows) {
+                Address address = (Address) row[0];
+                BigDecimal holdingAmount = (BigDecimal) row[1];
+                LocalDateTime lastUpdated = (LocalDateTime) row[2];
+                double amount = holdingAmount.doubleValue();
+                if (heap.size() == limit && amount * maxAgeSeconds <= heap.peek().priority) {
+                    break scan;
+                }
+                scanned++;
+                
+                long ageSeconds = lastUpdated != null ? Math.max(0, Duration.between(lastUpdated, now).getSeconds()) : 0;
+                double priority = (double) ageSeconds * amount;
+                
+                if (heap.size() < limit) {
+                    heap.offer(new Candidate(address, priority));
+                } else if (priority > heap.peek().priority) {
+                    heap.poll();
+                    heap.offer(new Candidate(address, priority));
+                }
+                lastAmount = holdingAmount;
+                lastId = (Long) row[3];
+            }
+            if (rows.size() < SCAN_PAGE_SIZE) {
+                break;
+            }
+        }
+        log.debug("Selected {} stalest holders after scanning {}", heap.size(), scanned);
+        
+        // 堆按优先级升序弹出，反转后优先级最高的排在前面，同步中途开始时先刷新的是最重要的持有者
+        List<Address> addresses = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            addresses.add(heap.poll().address);
+        }
+        Collections.reverse(addresses);
+        return addresses;
+    }
+    
+    private static class Candidate {
+        private final Address address;
+        private final double priority;
+        
+        Candidate(Address address, double priority) {
+            this.address = address;
+            this.priority = priority;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.defi.aave.service;
+
+import com.defi.aave.client.CoinGeckoApiClient;
+import com.defi.aave.config.AaveProperties;
+import com.defi.aave.entity.DailyPrice;
+import com.defi.aave.entity.SyncCheckpoint;
+import com.defi.aave.model.PriceTimeSeries;
+import com.defi.aave.repository.DailyPriceRepository;
+import com.defi.aave.repository.SyncCheckpointRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AAVE历史价格批量回填服务
+ * 通过CoinGecko market_chart/range 接口按区间批量拉取每日价格，
+ * 保存到 aave_daily_prices 表并维护内存中的 {@link PriceTimeSeries}，
+ * 使同步时的历史价格查询变为内存查找
+ * 已请求过的最后日期记录在检查点中（block_number列保存UTC日期的epoch day），
+ * CoinGecko未返回数据的日期（如代币上线前）不会被反复请求
+ */
+@Slf4j
+@Service
+public class PriceBackfillService {
+    
+    static final String CHECKPOINT_NAME = "aave_daily_prices";
+    
+    @Autowired
+    private CoinGeckoApiClient coinGeckoApiClient;
+    
+    @Autowired
+    private DailyPriceRepository dailyPriceRepository;
+    
+    @Autowired
+    private SyncCheckpointRepository syncCheckpointRepository;
+    
+    @Autowired
+    private AaveProperties aaveProperties;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    private volatile PriceTimeSeries series = PriceTimeSeries.empty();
+    
+    private boolean loaded = false;
+    
+    /**
+     * 已请求过的最后日期，尚未请求过时为null
+     */
+    private LocalDate fetchedThrough;
+    
+    @Autowired
+    public PriceBackfillService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * 查询内存序列中指定日期的价格
+     * @return 尚未回填该日期时返回null
+     */
+    public BigDecimal lookup(LocalDate date) {
+        return series.get(date);
+    }
+    
+    /**
+     * 回填截至昨天（UTC）的每日价格
+     * 首次调用时先从数据库加载已有价格和检查点，之后只请求检查点之后缺失的日期区间
+     * 某个区间没有返回数据时记录告警并继续请求下一个区间；请求失败时抛出异常，已完成的区间保留
+     * @return 本次新增的日期数
+     */
+    public synchronized int backfill() {
+        if (!loaded) {
+            loadFromDatabase();
+            fetchedThrough = syncCheckpointRepository.findById(CHECKPOINT_NAME)
+                    .map(checkpoint -> LocalDate.ofEpochDay(checkpoint.getBlockNumber()))
+                    .orElse(null);
+            loaded = true;
+        }
+        
+        LocalDate yesterday = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        LocalDate scanFrom = aaveProperties.getCoingecko().getHistoryStartDate();
+        if (fetchedThrough != null && !fetchedThrough.isBefore(scanFrom)) {
+            scanFrom = fetchedThrough.plusDays(1);
+        }
+        LocalDate start = firstMissingDate(scanFrom, yesterday);
+        if (start == null) {
+            return 0;
+        }
+        
+        int rangeDays = aaveProperties.getCoingecko().getRangeDays();
+        int added = 0;
+        for (LocalDate from = start; !from.isAfter(yesterday); from = from.plusDays(rangeDays)) {
+            LocalDate to = from.plusDays(rangeDays - 1);
+            if (to.isAfter(yesterday)) {
+                to = yesterday;
+            }
+            
+            Map<LocalDate, BigDecimal> prices = fetchDailyPrices(from, to);
+            added += persistWithCheckpoint(prices, to);
+            series = series.merge(prices);
+            fetchedThrough = to;
+            if (prices.isEmpty()) {
+                log.warn("No AAVE price data returned from {} to {}, continuing with the next range", from, to);
+            } else {
+                log.info("Fetched {} daily AAVE prices from {} to {}", prices.size(), from, to);
+            }
+        }
+        return added;
+    }
+    
+    /**
+     * 查找区间内第一个缺失价格的日期，逐日查询内存序列
+     * @return 区间内价格完整时返回null
+     */
+    private LocalDate firstMissingDate(LocalDate from, LocalDate to) {
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            if (series.get(date) == null) {
+                return date;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * 拉取区间内的价格点，按UTC日期取当日最早的价格点（与 /history 接口的00:00价格一致）
+     */
+    private Map<LocalDate, BigDecimal> fetchDailyPrices(LocalDate from, LocalDate to) {
+        Instant fromInstant = from.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant toInstant = to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().minusSeconds(1);
+        
+        Map<LocalDate, BigDecimal> prices = new HashMap<>();
+        for (CoinGeckoApiClient.PricePoint point : coinGeckoApiClient.getPriceRange(fromInstant, toInstant)) {
+            LocalDate day = Instant.ofEpochMilli(point.getTimestampMillis()).atZone(ZoneOffset.UTC).toLocalDate();
+            if (!day.isBefore(from) && !day.isAfter(to)) {
+                prices.putIfAbsent(day, point.getPrice());
+            }
+        }
+        return prices;
+    }
+    
+    /**
+     * 保存内存序列中尚不存在的日期（内存序列已包含数据库中的全部日期），并在同一事务中推进检查点
+     * @return 新保存的日期数
+     */
+    private int persistWithCheckpoint(Map<LocalDate, BigDecimal> prices, LocalDate fetchedTo) {
+        List<DailyPrice> missing = new ArrayList<>();
+        for (Map.Entry<LocalDate, BigDecimal> entry : prices.entrySet()) {
+            if (series.get(entry.getKey()) == null) {
+                missing.add(DailyPrice.builder()
+                        .priceDate(entry.getKey())
+                        .price(entry.getValue())
+                        .build());
+            }
+        }
+        transactionTemplate.execute(status -> {
+            dailyPriceRepository.saveAll(missing);
+            syncCheckpointRepository.save(SyncCheckpoint.builder()
+                    .name(CHECKPOINT_NAME)
+                    .blockNumber(fetchedTo.toEpochDay())
+                    .build());
+            return null;
+        });
+        return missing.size();
+    }
+    
+    private void loadFromDatabase() {
+        Map<LocalDate, BigDecimal> prices = new HashMap<>();
+        for (DailyPrice dailyPrice : dailyPriceRepository.findAll()) {
+            prices.put(dailyPrice.getPriceDate(), dailyPrice.getPrice());
+        }
+        series = PriceTimeSeries.of(prices);
+        log.info("Loaded {} daily AAVE prices from database", series.size());
+    }
+}
@@ -0,0 +1,88 @@
+package com.defi.aave.service;
+
+import com.defi.aave.client.CoinGeckoApiClient;
+import com.defi.aave.entity.DailyPrice;
+import com.defi.aave.repository.DailyPriceRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * AAVE历史价格服务
+ * 按UTC日期查询历史价格：回填的内存序列 -> 内存缓存 -> 数据库 -> CoinGecko API
+ * 已过去的日期价格不会变化，每个日期最多只请求一次API
+ */
+@Slf4j
+@Service
+public class PriceHistoryService {
+    
+    @Autowired
+    private DailyPriceRepository dailyPriceRepository;
+    
+    @Autowired
+    private CoinGeckoApiClient coinGeckoApiClient;
+    
+    @Autowired
+    private PriceBackfillService priceBackfillService;
+    
+    @Autowired
+    private Cache<LocalDate, BigDecimal> historicalPriceCache;
+    
+    /**
+     * 获取指定时间点所在日期的AAVE价格
+     * @param timestamp Unix时间戳（秒）
+     */
+    public BigDecimal getPriceAt(long timestamp) {
+        return getPriceOn(Instant.ofEpochSecond(timestamp).atZone(ZoneOffset.UTC).toLocalDate());
+    }
+    
+    /**
+     * 获取指定日期的AAVE价格
+     * 当天价格尚未定型，直接请求API且不缓存
+     */
+    public BigDecimal getPriceOn(LocalDate date) {
+        BigDecimal backfilled = priceBackfillService.lookup(date);
+        if (backfilled != null) {
+            return backfilled;
+        }
+        if (!date.isBefore(LocalDate.now(ZoneOffset.UTC))) {
+            return coinGeckoApiClient.getHistoricalPrice(date);
+        }
+        // Caffeine保证同一日期并发请求时只加载一次，加载结果为null时不缓存
+        return historicalPriceCache.get(date, this::loadPrice);
+    }
+    
+    /**
+     * 从数据库加载价格，不存在时请求API并持久化
+     */
+    private BigDecimal loadPrice(LocalDate date) {
+        DailyPrice stored = dailyPriceRepository.findById(date).orElse(null);
+        if (stored != null) {
+            return stored.getPrice();
+        }
+        
+        BigDecimal price = coinGeckoApiClient.getHistoricalPrice(date);
+        if (price == null) {
+            return null;
+        }
+        
+        try {
+            dailyPriceRepository.save(DailyPrice.builder()
+                    .priceDate(date)
+                    .price(price)
+                    .build());
+            log.debug("Stored daily AAVE price for {}: ${}", date, price);
+        } catch (DataIntegrityViolationException e) {
+            // 其他实例已写入同一日期，价格相同，忽略即可
+            log.debug("Daily price for {} already stored", date);
+        }
+        return price;
+    }
+}
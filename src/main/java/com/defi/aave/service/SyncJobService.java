@@ -0,0 +1,148 @@
+package com.defi.aave.service;
+
+import com.defi.aave.dto.SyncJobDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 同步任务服务
+ * 在后台线程中执行持有者同步和全量持仓成本重算，立即返回任务ID供查询进度；
+ * 同一时间只允许一个后台任务运行，避免重复消耗API配额和并发重写持有者表
+ */
+@Slf4j
+@Service
+public class SyncJobService {
+    
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    
+    @Autowired
+    private AaveHolderService aaveHolderService;
+    
+    @Autowired
+    @Qualifier("syncJobExecutor")
+    private ThreadPoolTaskExecutor syncJobExecutor;
+    
+    @Autowired
+    private Cache<String, SyncJob> syncJobCache;
+    
+    /**
+     * 当前运行中的任务
+     */
+    private final AtomicReference<SyncJob> runningJob = new AtomicReference<>();
+    
+    /**
+     * 提交同步任务
+     * @throws IllegalStateException 已有后台任务运行时抛出，异常信息包含运行中的任务ID
+     */
+    public SyncJobDto startSync() {
+        return submit("SYNC", aaveHolderService::syncHolders);
+    }
+    
+    /**
+     * 提交全量持仓成本重算任务，与同步任务共用后台线程，互斥执行
+     * @throws IllegalStateException 已有后台任务运行时抛出，异常信息包含运行中的任务ID
+     */
+    public SyncJobDto startCostBasisRecompute(CostBasisService.Method method) {
+        return submit("COST_BASIS", progress -> aaveHolderService.recomputeCostBasis(null, method, progress));
+    }
+    
+    private SyncJobDto submit(String type, Consumer<SyncProgress> task) {
+        SyncJob job = new SyncJob(UUID.randomUUID().toString(), type);
+        if (!runningJob.compareAndSet(null, job)) {
+            throw new IllegalStateException("Sync job already running: " + runningJob.get().id);
+        }
+        syncJobCache.put(job.id, job);
+        
+        try {
+            syncJobExecutor.execute(() -> run(job, task));
+        } catch (RuntimeException e) {
+            runningJob.set(null);
+            throw e;
+        }
+        log.info("Submitted {} job {}", type, job.id);
+        return toDto(job);
+    }
+    
+    /**
+     * 查询同步任务
+     * @return 任务不存在或已过期时返回null
+     */
+    public SyncJobDto getJob(String jobId) {
+        SyncJob job = syncJobCache.getIfPresent(jobId);
+        return job != null ? toDto(job) : null;
+    }
+    
+    /**
+     * 是否有后台任务（同步或持仓成本重算）正在运行
+     */
+    public boolean isRunning() {
+        return runningJob.get() != null;
+    }
+    
+    private void run(SyncJob job, Consumer<SyncProgress> task) {
+        try {
+            task.accept(job.progress);
+            job.status = "COMPLETED";
+        } catch (Exception e) {
+            log.error("{} job {} failed: {}", job.type, job.id, e.getMessage(), e);
+            job.errorMessage = e.getMessage();
+            job.status = "FAILED";
+        } finally {
+            job.endTime = LocalDateTime.now();
+            runningJob.set(null);
+            log.info("{} job {} finished with status {}", job.type, job.id, job.status);
+        }
+    }
+    
+    private SyncJobDto toDto(SyncJob job) {
+        SyncProgress progress = job.progress;
+        LocalDateTime endTime = job.endTime;
+        Duration elapsed = Duration.between(job.startTime, endTime != null ? endTime : LocalDateTime.now());
+        double elapsedSeconds = elapsed.toMillis() / 1000.0;
+        
+        return SyncJobDto.builder()
+                .jobId(job.id)
+                .type(job.type)
+                .status(job.status)
+                .totalProcessed(progress.getTotalProcessed())
+                .successCount(progress.getSuccessCount())
+                .failedCount(progress.getFailedCount())
+                .skippedCount(progress.getSkippedCount())
+                .rowsWritten(progress.getRowsWritten())
+                .throughput(elapsedSeconds > 0 ? progress.getTotalProcessed() / elapsedSeconds : 0)
+                .startTime(job.startTime.format(TIME_FORMATTER))
+                .endTime(endTime != null ? endTime.format(TIME_FORMATTER) : null)
+                .durationSeconds(elapsed.getSeconds())
+                .errorMessage(job.errorMessage)
+                .build();
+    }
+    
+    /**
+     * 后台任务状态
+     */
+    public static class SyncJob {
+        private final String id;
+        private final String type;
+        private final SyncProgress progress = new SyncProgress();
+        private final LocalDateTime startTime = LocalDateTime.now();
+        private volatile String status = "RUNNING";
+        private volatile LocalDateTime endTime;
+        private volatile String errorMessage;
+        
+        SyncJob(String id, String type) {
+            this.id = id;
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.defi.aave.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 同步进度计数器
+ * 由同步线程更新，可被其他线程并发读取
+ */
+public class SyncProgress {
+    
+    private final AtomicInteger totalProcessed = new AtomicInteger();
+    private final AtomicInteger successCount = new AtomicInteger();
+    private final AtomicInteger failedCount = new AtomicInteger();
+    private final AtomicInteger skippedCount = new AtomicInteger();
+    private final AtomicInteger rowsWritten = new AtomicInteger();
+    private final AtomicLong writeNanos = new AtomicLong();
+    
+    public void recordSuccess(int count) {
+        totalProcessed.addAndGet(count);
+        successCount.addAndGet(count);
+    }
+    
+    public void recordFailure() {
+        totalProcessed.incrementAndGet();
+        failedCount.incrementAndGet();
+    }
+    
+    /**
+     * 记录余额低于最小持仓量且未入库、无需分析的地址
+     */
+    public void recordSkipped(int count) {
+        totalProcessed.addAndGet(count);
+        skippedCount.addAndGet(count);
+    }
+    
+    public void recordWrite(int rows, long nanos) {
+        rowsWritten.addAndGet(rows);
+        writeNanos.addAndGet(nanos);
+    }
+    
+    public int getTotalProcessed() {
+        return totalProcessed.get();
+    }
+    
+    public int getSuccessCount() {
+        return successCount.get();
+    }
+    
+    public int getFailedCount() {
+        return failedCount.get();
+    }
+    
+    public int getSkippedCount() {
+        return skippedCount.get();
+    }
+    
+    public int getRowsWritten() {
+        return rowsWritten.get();
+    }
+    
+    /**
+     * 数据库写入速率（行/秒），按实际写入耗时计算
+     */
+    public double getRowsPerSecond() {
+        long nanos = writeNanos.get();
+        return nanos > 0 ? rowsWritten.get() * 1e9 / nanos : 0;
+    }
+}
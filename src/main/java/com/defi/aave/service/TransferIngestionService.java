@@ -0,0 +1,127 @@
+package com.defi.aave.service;
+
+import com.defi.aave.client.EtherscanApiClient;
+import com.defi.aave.config.AaveProperties;
+import com.defi.aave.entity.SyncCheckpoint;
+import com.defi.aave.model.TransferRecord;
+import com.defi.aave.repository.SyncCheckpointRepository;
+import com.defi.aave.repository.TokenTransferRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AAVE转账记录增量同步服务
+ * 从检查点区块开始向后翻页拉取合约的全部转账记录并保存，
+ * 每页的转账记录与新检查点在同一事务中提交，中断后可从检查点继续；
+ * 检查点只前移到已完整拉取的区块，单个区块的转账超过一页时在该区块内继续翻页
+ */
+@Slf4j
+@Service
+public class TransferIngestionService {
+    
+    static final String CHECKPOINT_NAME = "aave_token_transfers";
+    
+    @Autowired
+    private EtherscanApiClient etherscanApiClient;
+    
+    @Autowired
+    private TokenTransferRepository tokenTransferRepository;
+    
+    @Autowired
+    private SyncCheckpointRepository syncCheckpointRepository;
+    
+    @Autowired
+    private AaveProperties aaveProperties;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    public TransferIngestionService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * 拉取检查点之后的新转账记录，单次最多拉取 max-transfer-pages 页
+     * 中途失败时之前的页已连同检查点提交，调用方应以转账记录表为准处理新转账，而不是依赖返回值
+     * @return 本次新保存的转账记录数
+     */
+    public synchronized int ingest() {
+        AaveProperties.Sync sync = aaveProperties.getSync();
+        int pageSize = sync.getTransferPageSize();
+        long checkpoint = syncCheckpointRepository.findById(CHECKPOINT_NAME)
+                .map(SyncCheckpoint::getBlockNumber)
+                .orElse(sync.getStartBlock() - 1);
+        
+        int ingested = 0;
+        List<TransferRecord> records = new ArrayList<>(pageSize);
+        for (int page = 0; page < sync.getMaxTransferPages(); page++) {
+            records.clear();
+            etherscanApiClient.streamTokenTransfers(checkpoint + 1, pageSize, records::add);
+            if (records.isEmpty()) {
+                break;
+            }
+            
+            long lastBlock = records.get(records.size() - 1).getBlockNumber();
+            long firstBlock = records.get(0).getBlockNumber();
+            boolean fullPage = records.size() >= pageSize;
+            
+            long completeBlock;
+            if (!fullPage) {
+                completeBlock = lastBlock;
+            } else if (lastBlock > firstBlock) {
+                // 满页时最后一个区块可能只返回了一部分转账，舍弃该区块留待下一页完整拉取
+                completeBlock = lastBlock - 1;
+                records.removeIf(record -> record.getBlockNumber() > completeBlock);
+            } else {
+                // 整页都在同一区块内，该区块还有后续转账：限定在该区块内继续翻页，全部拉取后再与检查点一起提交
+                completeBlock = lastBlock;
+                fetchRestOfBlock(lastBlock, pageSize, records);
+            }
+            
+            saveWithCheckpoint(records, completeBlock);
+            ingested += records.size();
+            checkpoint = completeBlock;
+            log.info("Ingested {} AAVE transfers up to block {}", records.size(), completeBlock);
+            
+            if (!fullPage) {
+                break;
+            }
+        }
+        return ingested;
+    }
+    
+    /**
+     * 拉取单个区块第2页起的转账记录，追加到records
+     * @throws IllegalStateException 区块的转账数超出Etherscan分页上限，无法完整拉取；检查点不前移
+     */
+    private void fetchRestOfBlock(long block, int pageSize, List<TransferRecord> records) {
+        for (int page = 2; ; page++) {
+            if ((long) page * pageSize > EtherscanApiClient.MAX_RESULT_WINDOW) {
+                throw new IllegalStateException("Block " + block + " has more than "
+                        + EtherscanApiClient.MAX_RESULT_WINDOW + " AAVE transfers, cannot fetch it completely");
+            }
+            int fetched = etherscanApiClient.streamTokenTransfers(block, block, page, pageSize, records::add);
+            log.debug("Fetched page {} of block {} with {} transfers", page, block, fetched);
+            if (fetched < pageSize) {
+                return;
+            }
+        }
+    }
+    
+    private void saveWithCheckpoint(List<TransferRecord> records, long blockNumber) {
+        transactionTemplate.execute(status -> {
+            tokenTransferRepository.insertAll(records);
+            syncCheckpointRepository.save(SyncCheckpoint.builder()
+                    .name(CHECKPOINT_NAME)
+                    .blockNumber(blockNumber)
+                    .build());
+            return null;
+        });
+    }
+}
@@ -0,0 +1,96 @@
+package com.defi.aave.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CircuitBreakerTest {
+    
+    private static final int THRESHOLD = 3;
+    private static final Duration OPEN_DURATION = Duration.ofMillis(50);
+    
+    private SimpleMeterRegistry meterRegistry;
+    private CircuitBreaker circuitBreaker;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreaker = new CircuitBreaker("etherscan", THRESHOLD, OPEN_DURATION, meterRegistry);
+    }
+    
+    @Test
+    void opensAfterConsecutiveFailuresAndRejectsCalls() {
+        failTimes(THRESHOLD - 1);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        
+        circuitBreaker.acquirePermission();
+        circuitBreaker.onFailure();
+        
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(CircuitBreakerOpenException.class, () -> circuitBreaker.acquirePermission());
+        assertEquals(1, meterRegistry.get("aave.api.circuit.rejected").counter().count());
+        assertEquals(1, meterRegistry.get("aave.api.circuit.state").tag("state", "open").gauge().value());
+    }
+    
+    @Test
+    void successResetsFailureCount() {
+        failTimes(THRESHOLD - 1);
+        circuitBreaker.onSuccess();
+        failTimes(THRESHOLD - 1);
+        
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+    
+    @Test
+    void halfOpenAllowsSingleTrialAndClosesOnSuccess() throws InterruptedException {
+        failTimes(THRESHOLD);
+        Thread.sleep(OPEN_DURATION.toMillis() * 2);
+        
+        circuitBreaker.acquirePermission();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        // 试探请求未返回时拒绝其他请求
+        assertThrows(CircuitBreakerOpenException.class, () -> circuitBreaker.acquirePermission());
+        
+        circuitBreaker.onSuccess();
+        
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        circuitBreaker.acquirePermission();
+        circuitBreaker.acquirePermission();
+    }
+    
+    @Test
+    void failedTrialReopens() throws InterruptedException {
+        failTimes(THRESHOLD);
+        Thread.sleep(OPEN_DURATION.toMillis() * 2);
+        
+        circuitBreaker.acquirePermission();
+        circuitBreaker.onFailure();
+        
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(CircuitBreakerOpenException.class, () -> circuitBreaker.acquirePermission());
+    }
+    
+    @Test
+    void ignoredTrialReleasesPermitWithoutClosing() throws InterruptedException {
+        failTimes(THRESHOLD);
+        Thread.sleep(OPEN_DURATION.toMillis() * 2);
+        
+        circuitBreaker.acquirePermission();
+        circuitBreaker.onIgnored();
+        
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.acquirePermission();
+    }
+    
+    private void failTimes(int count) {
+        for (int i = 0; i < count; i++) {
+            circuitBreaker.acquirePermission();
+            circuitBreaker.onFailure();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.defi.aave.client;
+
+import com.defi.aave.config.AaveProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.ExpectedCount.times;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class ResilientApiExecutorTest {
+    
+    private static final String URL = "http://etherscan.test/api";
+    private static final String RATE_LIMITED =
+            "{\"status\":\"0\",\"message\":\"NOTOK\",\"result\":\"Max rate limit reached\"}";
+    private static final String BALANCE = "{\"status\":\"1\",\"message\":\"OK\",\"result\":\"42\"}";
+    private static final double RATE = 100;
+    
+    private MockRestServiceServer server;
+    private TokenBucketRateLimiter rateLimiter;
+    private ResilientApiExecutor executor;
+    
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        rateLimiter = new TokenBucketRateLimiter("etherscan", RATE, 10, meterRegistry);
+        AaveProperties.Resilience resilience = new AaveProperties.Resilience();
+        resilience.setInitialBackoffMs(1L);
+        executor = new ResilientApiExecutor("etherscan", restTemplate, WebClient.create(), rateLimiter,
+                resilience, meterRegistry,
+                response -> response instanceof EtherscanResponse && ((EtherscanResponse) response).isRateLimited());
+    }
+    
+    @Test
+    void retriesRateLimitedBodyAndReducesRate() {
+        server.expect(requestTo(URL)).andRespond(withSuccess(RATE_LIMITED, MediaType.APPLICATION_JSON));
+        server.expect(requestTo(URL)).andRespond(withSuccess(BALANCE, MediaType.APPLICATION_JSON));
+        
+        EtherscanApiClient.TokenBalanceResponse response =
+                executor.execute(URL, EtherscanApiClient.TokenBalanceResponse.class);
+        
+        assertEquals("42", response.getResult());
+        assertTrue(rateLimiter.getRate() < RATE);
+        assertEquals(CircuitBreaker.State.CLOSED, executor.getCircuitState());
+        server.verify();
+    }
+    
+    @Test
+    void failsWithThrottleCauseWhenAttemptsAreExhausted() {
+        server.expect(times(3), requestTo(URL)).andRespond(withSuccess(RATE_LIMITED, MediaType.APPLICATION_JSON));
+        
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> executor.execute(URL, EtherscanApiClient.TokenBalanceResponse.class));
+        
+        assertInstanceOf(ApiThrottledException.class, e.getCause());
+        assertEquals(CircuitBreaker.State.CLOSED, executor.getCircuitState());
+        server.verify();
+    }
+    
+    @Test
+    void doesNotRetryClientErrors() {
+        server.expect(times(1), requestTo(URL)).andRespond(withStatus(HttpStatus.BAD_REQUEST));
+        
+        assertThrows(RuntimeException.class,
+                () -> executor.execute(URL, EtherscanApiClient.TokenBalanceResponse.class));
+        server.verify();
+    }
+}
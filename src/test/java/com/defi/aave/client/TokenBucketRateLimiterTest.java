@@ -0,0 +1,95 @@
+package com.defi.aave.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketRateLimiterTest {
+    
+    private static final double RATE = 1;
+    private static final int BURST = 3;
+    
+    private SimpleMeterRegistry meterRegistry;
+    private TokenBucketRateLimiter rateLimiter;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        rateLimiter = new TokenBucketRateLimiter("etherscan", RATE, BURST, meterRegistry);
+    }
+    
+    @Test
+    void allowsBurstThenReportsWaitForNextToken() {
+        for (int i = 0; i < BURST; i++) {
+            assertEquals(0, rateLimiter.tryAcquire());
+        }
+        
+        long waitNanos = rateLimiter.tryAcquire();
+        assertTrue(waitNanos > 0);
+        assertTrue(waitNanos <= TimeUnit.SECONDS.toNanos(1));
+    }
+    
+    @Test
+    void throttlingHalvesRateAndPausesForRetryAfter() {
+        rateLimiter.onThrottled(Duration.ofSeconds(30));
+        
+        assertEquals(RATE / 2, rateLimiter.getRate());
+        assertTrue(rateLimiter.tryAcquire() > TimeUnit.SECONDS.toNanos(29));
+        assertEquals(RATE / 2, meterRegistry.get("aave.api.ratelimit.rate").tag("provider", "etherscan")
+                .gauge().value());
+    }
+    
+    @Test
+    void throttledRateHasFloorAndRecoversOnSuccess() {
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.onThrottled(Duration.ZERO);
+        }
+        assertEquals(RATE * 0.1, rateLimiter.getRate(), 1e-9);
+        
+        rateLimiter.onSuccess();
+        assertEquals(RATE * 0.12, rateLimiter.getRate(), 1e-9);
+        
+        for (int i = 0; i < 100; i++) {
+            rateLimiter.onSuccess();
+        }
+        assertEquals(RATE, rateLimiter.getRate());
+    }
+    
+    @Test
+    void rejectsNonPositiveRate() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TokenBucketRateLimiter("etherscan", 0, BURST, meterRegistry));
+    }
+    
+    @Test
+    void parsesRetryAfterSecondsAndHttpDate() {
+        assertEquals(Duration.ofSeconds(7), TokenBucketRateLimiter.parseRetryAfter(retryAfter("7")));
+        
+        String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().plusMinutes(2));
+        Duration delay = TokenBucketRateLimiter.parseRetryAfter(retryAfter(date));
+        assertTrue(delay.compareTo(Duration.ofSeconds(60)) > 0 && delay.compareTo(Duration.ofSeconds(120)) <= 0);
+        
+        String past = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().minusMinutes(2));
+        assertEquals(Duration.ZERO, TokenBucketRateLimiter.parseRetryAfter(retryAfter(past)));
+        
+        assertNull(TokenBucketRateLimiter.parseRetryAfter(retryAfter("soon")));
+        assertNull(TokenBucketRateLimiter.parseRetryAfter(new HttpHeaders()));
+    }
+    
+    private static HttpHeaders retryAfter(String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, value);
+        return headers;
+    }
+}
@@ -0,0 +1,113 @@
+package com.defi.aave.client;
+
+import com.defi.aave.model.Address;
+import com.defi.aave.model.Hex;
+import com.defi.aave.model.TransferRecord;
+import com.fasterxml.jackson.core.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenTransferStreamParserTest {
+    
+    private static final String HASH = "0x" + repeat("ab", 32);
+    private static final String FROM = "0x0000000000000000000000000000000000000000";
+    private static final String TO = "0x7Fc66500c84A76Ad7e9c93437bFc5Ac33E2DDaE9";
+    
+    @Test
+    void parsesRecordsAndSkipsUnusedFields() throws IOException {
+        String json = "{\"status\":\"1\",\"message\":\"OK\",\"result\":["
+                + record("11000000", "1600000000", "16000000000000000000000000")
+                + "," + record("11000001", "1600000013", "1")
+                + "],\"extra\":{\"nested\":[1,2,3]}}";
+        
+        TokenTransferStreamParser.Page page = TokenTransferStreamParser.parse(body(json));
+        
+        assertEquals("1", page.getStatus());
+        assertEquals("OK", page.getMessage());
+        assertNull(page.getResultText());
+        assertFalse(page.isRateLimited());
+        assertEquals(2, page.getRecords().size());
+        
+        TransferRecord first = page.getRecords().get(0);
+        assertEquals(11000000L, first.getBlockNumber());
+        assertEquals(1600000000L, first.getTimestamp());
+        assertEquals(HASH, Hex.encode(first.getTxHash()));
+        assertEquals(Address.ZERO, first.getFrom());
+        assertEquals(Address.of(TO), first.getTo());
+        assertEquals(new BigInteger("16000000000000000000000000"), first.getValue());
+        assertEquals(BigInteger.ONE, page.getRecords().get(1).getValue());
+    }
+    
+    @Test
+    void emptyResultArray() throws IOException {
+        TokenTransferStreamParser.Page page = TokenTransferStreamParser.parse(
+                body("{\"status\":\"0\",\"message\":\"No transactions found\",\"result\":[]}"));
+        
+        assertEquals("No transactions found", page.getMessage());
+        assertTrue(page.getRecords().isEmpty());
+        assertFalse(page.isRateLimited());
+    }
+    
+    @Test
+    void capturesStringResultAsRateLimit() throws IOException {
+        TokenTransferStreamParser.Page page = TokenTransferStreamParser.parse(
+                body("{\"status\":\"0\",\"message\":\"NOTOK\",\"result\":\"Max rate limit reached\"}"));
+        
+        assertTrue(page.getRecords().isEmpty());
+        assertEquals("Max rate limit reached", page.getResultText());
+        assertTrue(page.isRateLimited());
+    }
+    
+    @Test
+    void stringResultWithoutRateLimitIsNotThrottling() throws IOException {
+        TokenTransferStreamParser.Page page = TokenTransferStreamParser.parse(
+                body("{\"status\":\"0\",\"message\":\"NOTOK\",\"result\":\"Invalid API Key\"}"));
+        
+        assertEquals("Invalid API Key", page.getResultText());
+        assertFalse(page.isRateLimited());
+    }
+    
+    @Test
+    void rejectsIncompleteOrInvalidRecords() {
+        String missingValue = "{\"blockNumber\":\"1\",\"timeStamp\":\"2\",\"hash\":\"" + HASH
+                + "\",\"from\":\"" + FROM + "\",\"to\":\"" + TO + "\"}";
+        
+        assertThrows(JsonParseException.class, () -> TokenTransferStreamParser.parse(
+                body("{\"status\":\"1\",\"result\":[" + missingValue + "]}")));
+        assertThrows(JsonParseException.class, () -> TokenTransferStreamParser.parse(
+                body("{\"status\":\"1\",\"result\":[" + record("12a", "2", "1") + "]}")));
+        assertThrows(JsonParseException.class, () -> TokenTransferStreamParser.parse(
+                body("{\"status\":\"1\",\"result\":[" + record("1", "2", "1").replace(TO, "0x1234") + "]}")));
+        assertThrows(JsonParseException.class, () -> TokenTransferStreamParser.parse(body("[]")));
+    }
+    
+    private static String record(String blockNumber, String timestamp, String value) {
+        return "{\"blockNumber\":\"" + blockNumber + "\",\"timeStamp\":\"" + timestamp + "\",\"hash\":\"" + HASH
+                + "\",\"nonce\":\"7\",\"from\":\"" + FROM + "\",\"contractAddress\":\"" + TO
+                + "\",\"to\":\"" + TO + "\",\"value\":\"" + value + "\",\"tokenName\":\"Aave Token\""
+                + ",\"tokenDecimal\":\"18\",\"gasUsed\":\"21000\"}";
+    }
+    
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String repeat(String text, int times) {
+        StringBuilder builder = new StringBuilder(text.length() * times);
+        for (int i = 0; i < times; i++) {
+            builder.append(text);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,83 @@
+package com.defi.aave.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SyncConfigTest {
+    
+    private ThreadPoolTaskExecutor executor;
+    
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    void holderSyncExecutorQueuesInsteadOfRunningOnSubmitter() throws Exception {
+        executor = holderSyncExecutor(2, 3);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(20);
+        Thread submitter = Thread.currentThread();
+        boolean[] ranOnSubmitter = new boolean[1];
+        
+        // 任务数远超线程数与批次大小之和，均应排队在工作线程上执行
+        for (int i = 0; i < 20; i++) {
+            executor.execute(() -> {
+                if (Thread.currentThread() == submitter) {
+                    ranOnSubmitter[0] = true;
+                    done.countDown();
+                    return;
+                }
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            });
+        }
+        release.countDown();
+        
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertFalse(ranOnSubmitter[0]);
+    }
+    
+    @Test
+    void publishOnHolderSyncExecutorLeavesTimerThreads() {
+        executor = holderSyncExecutor(2, 1);
+        
+        List<String> threads = Flux.range(0, 10)
+                .delayElements(Duration.ofMillis(1))
+                .publishOn(Schedulers.fromExecutor(executor))
+                .map(i -> Thread.currentThread().getName())
+                .collectList()
+                .block(Duration.ofSeconds(5));
+        
+        assertEquals(10, threads.size());
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("holder-sync-")), threads.toString());
+    }
+    
+    private static ThreadPoolTaskExecutor holderSyncExecutor(int workerThreads, int batchSize) {
+        AaveProperties properties = new AaveProperties();
+        properties.getSync().setWorkerThreads(workerThreads);
+        properties.getSync().setBatchSize(batchSize);
+        SyncConfig config = new SyncConfig();
+        ReflectionTestUtils.setField(config, "aaveProperties", properties);
+        return config.holderSyncExecutor();
+    }
+}
@@ -0,0 +1,139 @@
+package com.defi.aave.controller;
+
+import com.defi.aave.config.AaveProperties;
+import com.defi.aave.dto.HolderDto;
+import com.defi.aave.dto.PageDto;
+import com.defi.aave.service.AaveHolderService;
+import com.defi.aave.service.HolderExportService;
+import com.defi.aave.service.SyncJobService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(AaveHolderController.class)
+class AaveHolderControllerTest {
+    
+    private static final String ADDRESS = "0x00000000000000000000000000000000000000aa";
+    private static final String ETAG = "\"epoch-7\"";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @MockBean
+    private AaveHolderService aaveHolderService;
+    
+    @MockBean
+    private SyncJobService syncJobService;
+    
+    @MockBean
+    private HolderExportService holderExportService;
+    
+    @MockBean
+    private AaveProperties aaveProperties;
+    
+    @BeforeEach
+    void setUp() {
+        when(aaveHolderService.getDataVersionTag()).thenReturn("epoch-7");
+        when(aaveHolderService.getHolders(any(), any(), any(), any(), any())).thenReturn(
+                PageDto.<HolderDto>builder().content(Collections.emptyList()).totalElements(0L).build());
+        when(aaveHolderService.getHolderByAddress(ADDRESS)).thenReturn(
+                HolderDto.builder().walletAddress(ADDRESS).holdingAmount(BigDecimal.TEN).build());
+    }
+    
+    @Test
+    void listReturnsEtagWhenNotMatching() throws Exception {
+        mockMvc.perform(get("/aave/holders").header(HttpHeaders.IF_NONE_MATCH, "\"epoch-6\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(jsonPath("$.code").value(200));
+        
+        verify(aaveHolderService).getHolders(isNull(), isNull(), isNull(), isNull(), isNull());
+    }
+    
+    @Test
+    void listReturnsNotModifiedWithoutQuerying() throws Exception {
+        mockMvc.perform(get("/aave/holders").param("cursor", "abc").header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG));
+        
+        verify(aaveHolderService).validateCursor("abc", null, null);
+        verify(aaveHolderService, never()).getHolders(any(), any(), any(), any(), any());
+        verify(aaveHolderService, never()).getHoldersByCursor(any(), any(), any(), any(), any(), anyBoolean());
+    }
+    
+    @Test
+    void listMatchesWeakAndMultipleEtags() throws Exception {
+        mockMvc.perform(get("/aave/holders").header(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + ETAG))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/aave/holders").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotModified());
+        
+        verify(aaveHolderService, never()).getHolders(any(), any(), any(), any(), any());
+    }
+    
+    @Test
+    void invalidCursorIsRejectedBeforeEtagComparison() throws Exception {
+        doThrow(new IllegalArgumentException("Invalid cursor"))
+                .when(aaveHolderService).validateCursor(eq("bad"), any(), any());
+        
+        mockMvc.perform(get("/aave/holders").param("cursor", "bad").header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+    }
+    
+    @Test
+    void holderReturnsNotModifiedWithoutQuerying() throws Exception {
+        mockMvc.perform(get("/aave/holders/" + ADDRESS).header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG));
+        
+        verify(aaveHolderService, never()).getHolderByAddress(any());
+    }
+    
+    @Test
+    void holderReturnsEtagWhenNotMatching() throws Exception {
+        mockMvc.perform(get("/aave/holders/" + ADDRESS))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(jsonPath("$.data.walletAddress").value(ADDRESS));
+    }
+    
+    @Test
+    void invalidAddressIsRejectedBeforeEtagComparison() throws Exception {
+        mockMvc.perform(get("/aave/holders/0x123").header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+        
+        verify(aaveHolderService, never()).getHolderByAddress(any());
+    }
+    
+    @Test
+    void missingHolderHasNoEtag() throws Exception {
+        String missing = "0x00000000000000000000000000000000000000bb";
+        
+        mockMvc.perform(get("/aave/holders/" + missing).header(HttpHeaders.IF_NONE_MATCH, "\"epoch-6\""))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+}
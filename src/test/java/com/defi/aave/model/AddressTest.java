@@ -0,0 +1,98 @@
+package com.defi.aave.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AddressTest {
+    
+    private static final String AAVE = "0x7Fc66500c84A76Ad7e9c93437bFc5Ac33E2DDaE9";
+    
+    @Test
+    void parsesCaseInsensitivelyAndPrintsLowercase() {
+        Address mixed = Address.of(AAVE);
+        Address lower = Address.of(AAVE.toLowerCase());
+        Address upperPrefix = Address.of("0X" + AAVE.substring(2).toUpperCase());
+        
+        assertEquals(AAVE.toLowerCase(), mixed.toString());
+        assertEquals(mixed, lower);
+        assertEquals(mixed, upperPrefix);
+        assertEquals(mixed.hashCode(), upperPrefix.hashCode());
+    }
+    
+    @Test
+    void parsesFromCharBufferSlice() {
+        char[] buffer = ("\"to\":\"" + AAVE + "\"").toCharArray();
+        
+        assertEquals(Address.of(AAVE), Address.of(buffer, 6, 42));
+    }
+    
+    @Test
+    void rejectsMalformedAddresses() {
+        assertThrows(IllegalArgumentException.class, () -> Address.of((String) null));
+        assertThrows(IllegalArgumentException.class, () -> Address.of(""));
+        assertThrows(IllegalArgumentException.class, () -> Address.of(AAVE.substring(2)));
+        assertThrows(IllegalArgumentException.class, () -> Address.of(AAVE + "0"));
+        assertThrows(IllegalArgumentException.class, () -> Address.of(AAVE.substring(0, 41)));
+        assertThrows(IllegalArgumentException.class, () -> Address.of("0x" + AAVE.substring(3) + "g"));
+        assertThrows(IllegalArgumentException.class, () -> Address.fromBytes(new byte[19]));
+        assertThrows(IllegalArgumentException.class, () -> Address.fromBytes(null));
+    }
+    
+    @Test
+    void roundTripsThroughBytes() {
+        Address address = Address.of(AAVE);
+        byte[] bytes = address.toBytes();
+        
+        assertEquals(Address.LENGTH, bytes.length);
+        assertEquals((byte) 0x7f, bytes[0]);
+        assertEquals((byte) 0xe9, bytes[19]);
+        assertEquals(address, Address.fromBytes(bytes));
+        assertArrayEquals(bytes, Address.fromBytes(bytes).toBytes());
+    }
+    
+    @Test
+    void zeroAddress() {
+        assertTrue(Address.ZERO.isZero());
+        assertEquals(Address.ZERO, Address.of("0x0000000000000000000000000000000000000000"));
+        assertFalse(Address.of(AAVE).isZero());
+        assertArrayEquals(new byte[Address.LENGTH], Address.ZERO.toBytes());
+    }
+    
+    @Test
+    void comparesAsUnsignedBytes() {
+        Address low = Address.of("0x0000000000000000000000000000000000000001");
+        Address midHigh = Address.of("0x0000000000000000800000000000000000000000");
+        Address lastByte = Address.of("0x00000000000000000000000000000000000000ff");
+        Address high = Address.of("0xff00000000000000000000000000000000000000");
+        
+        List<Address> addresses = new ArrayList<>(Arrays.asList(high, lastByte, Address.ZERO, midHigh, low));
+        Collections.sort(addresses);
+        
+        assertEquals(Arrays.asList(Address.ZERO, low, lastByte, midHigh, high), addresses);
+        assertEquals(0, low.compareTo(Address.of(low.toString())));
+        assertNotEquals(low, lastByte);
+    }
+    
+    @Test
+    void serializesAsLowercaseJsonString() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        Address address = Address.of(AAVE);
+        
+        String json = mapper.writeValueAsString(address);
+        
+        assertEquals("\"" + AAVE.toLowerCase() + "\"", json);
+        assertEquals(address, mapper.readValue("\"" + AAVE + "\"", Address.class));
+    }
+}
@@ -0,0 +1,175 @@
+package com.defi.aave.repository;
+
+import com.defi.aave.entity.AaveHolder;
+import com.defi.aave.model.Address;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest
+class AaveHolderRepositoryImplTest {
+    
+    private static final Address A = Address.of("0x7Fc66500c84A76Ad7e9c93437bFc5Ac33E2DDaE9");
+    private static final Address B = Address.of("0x00000000000000000000000000000000000000ff");
+    
+    @Autowired
+    private AaveHolderRepository aaveHolderRepository;
+    
+    @Autowired
+    private TestEntityManager entityManager;
+    
+    @Test
+    void upsertAllInsertsNewHolders() {
+        AaveHolder a = holder(A, "5000.123456789012345678", "10", "50001.23456789");
+        AaveHolder b = holder(B, "4000", "10", "40000");
+        
+        assertEquals(2, aaveHolderRepository.upsertAll(Arrays.asList(a, b)));
+        entityManager.clear();
+        
+        AaveHolder stored = aaveHolderRepository.findByWalletAddress(A).get();
+        assertNotNull(stored.getId());
+        assertNotNull(stored.getCreatedAt());
+        assertEquals(0, new BigDecimal("5000.123456789012345678").compareTo(stored.getHoldingAmount()));
+        assertEquals("Etherscan", stored.getDataSource());
+        assertEquals(a.getLastUpdated().withNano(0), stored.getLastUpdated().withNano(0));
+        assertEquals(2, aaveHolderRepository.count());
+    }
+    
+    @Test
+    void upsertAllUpdatesExistingHolderInPlace() {
+        AaveHolder existing = entityManager.persistFlushFind(holder(A, "5000", "10", "50000"));
+        Long id = existing.getId();
+        LocalDateTime createdAt = existing.getCreatedAt();
+        entityManager.clear();
+        
+        AaveHolder update = holder(A, "6000", "12", "72000");
+        update.setCostBasis(new BigDecimal("60000"));
+        update.setProfitLoss(new BigDecimal("12000"));
+        update.setProfitLossPercentage(new BigDecimal("20.00"));
+        assertEquals(2, aaveHolderRepository.upsertAll(Arrays.asList(update, holder(B, "4000", "12", "48000"))));
+        entityManager.clear();
+        
+        AaveHolder stored = aaveHolderRepository.findByWalletAddress(A).get();
+        assertEquals(id, stored.getId());
+        assertEquals(createdAt, stored.getCreatedAt());
+        assertEquals(0, new BigDecimal("6000").compareTo(stored.getHoldingAmount()));
+        assertEquals(0, new BigDecimal("72000").compareTo(stored.getCurrentValue()));
+        assertEquals(0, new BigDecimal("20.00").compareTo(stored.getProfitLossPercentage()));
+        assertFalse(stored.getLastUpdated().isBefore(createdAt));
+        assertEquals(2, aaveHolderRepository.count());
+    }
+    
+    @Test
+    void upsertAllWithNoHoldersWritesNothing() {
+        assertEquals(0, aaveHolderRepository.upsertAll(Collections.emptyList()));
+        assertEquals(0, aaveHolderRepository.count());
+    }
+    
+    @Test
+    void updateCostBasisRecomputesProfitWithoutTouchingLastUpdated() {
+        AaveHolder existing = entityManager.persistFlushFind(holder(A, "15.123456789012345678", "400", "6049.38"));
+        LocalDateTime lastUpdated = existing.getLastUpdated();
+        entityManager.clear();
+        
+        Map<Address, BigDecimal> costBasis = new LinkedHashMap<>();
+        costBasis.put(A, new BigDecimal("2500"));
+        costBasis.put(B, new BigDecimal("100"));
+        assertEquals(1, aaveHolderRepository.updateCostBasis(costBasis));
+        entityManager.clear();
+        
+        AaveHolder stored = aaveHolderRepository.findByWalletAddress(A).get();
+        assertEquals(0, new BigDecimal("2500").compareTo(stored.getCostBasis()));
+        assertEquals(0, new BigDecimal("3549.38").compareTo(stored.getProfitLoss()));
+        // 3549.38 / 2500 = 1.419752，先保留4位小数再乘以100
+        assertEquals(0, new BigDecimal("141.98").compareTo(stored.getProfitLossPercentage()));
+        assertEquals(lastUpdated, stored.getLastUpdated());
+    }
+    
+    @Test
+    void updateCostBasisClearsProfitWhenCostIsNotPositive() {
+        AaveHolder existing = holder(A, "10", "400", "4000");
+        existing.setProfitLoss(BigDecimal.ONE);
+        existing.setProfitLossPercentage(BigDecimal.ONE);
+        entityManager.persistAndFlush(existing);
+        entityManager.clear();
+        
+        assertEquals(1, aaveHolderRepository.updateCostBasis(Collections.singletonMap(A, BigDecimal.ZERO)));
+        entityManager.clear();
+        
+        AaveHolder stored = aaveHolderRepository.findByWalletAddress(A).get();
+        assertEquals(0, BigDecimal.ZERO.compareTo(stored.getCostBasis()));
+        assertNull(stored.getProfitLoss());
+        assertNull(stored.getProfitLossPercentage());
+    }
+    
+    @Test
+    void remarkAllRevaluesHoldersAtNewPrice() {
+        AaveHolder withCost = holder(A, "15.123456789012345678", "400", "6049.38");
+        withCost.setCostBasis(new BigDecimal("2500"));
+        AaveHolder withoutCost = holder(B, "85", "400", "34000");
+        withoutCost.setProfitLoss(BigDecimal.ONE);
+        entityManager.persist(withCost);
+        entityManager.persist(withoutCost);
+        entityManager.flush();
+        entityManager.clear();
+        LocalDateTime lastUpdated = aaveHolderRepository.findByWalletAddress(A).get().getLastUpdated();
+        
+        BigDecimal price = new BigDecimal("123.45678901");
+        assertEquals(2, aaveHolderRepository.remarkAll(price));
+        entityManager.clear();
+        
+        AaveHolder a = aaveHolderRepository.findByWalletAddress(A).get();
+        BigDecimal value = new BigDecimal("15.123456789012345678").multiply(price).setScale(8, RoundingMode.HALF_UP);
+        BigDecimal profit = value.subtract(new BigDecimal("2500"));
+        assertEquals(0, price.compareTo(a.getCurrentPrice()));
+        assertEquals(0, value.compareTo(a.getCurrentValue()));
+        assertEquals(0, profit.compareTo(a.getProfitLoss()));
+        assertEquals(0, profit.divide(new BigDecimal("2500"), 4, RoundingMode.HALF_UP).movePointRight(2)
+                .compareTo(a.getProfitLossPercentage()));
+        assertEquals(lastUpdated, a.getLastUpdated());
+        
+        // 无持仓成本的持有者只重算价格和持仓价值，收益保持不变
+        AaveHolder b = aaveHolderRepository.findByWalletAddress(B).get();
+        assertEquals(0, new BigDecimal("10493.82706585").compareTo(b.getCurrentValue()));
+        assertEquals(0, BigDecimal.ONE.compareTo(b.getProfitLoss()));
+        assertNull(b.getProfitLossPercentage());
+    }
+    
+    @Test
+    void remarkAllSkipsHoldersAlreadyAtPrice() {
+        entityManager.persist(holder(A, "10", "400", "4000"));
+        entityManager.persist(holder(B, "20", "300", "6000"));
+        entityManager.flush();
+        entityManager.clear();
+        
+        assertEquals(1, aaveHolderRepository.remarkAll(new BigDecimal("400.00000000")));
+        assertEquals(0, aaveHolderRepository.remarkAll(new BigDecimal("400")));
+        entityManager.clear();
+        
+        assertEquals(0, new BigDecimal("8000").compareTo(aaveHolderRepository.findByWalletAddress(B).get()
+                .getCurrentValue()));
+    }
+    
+    private static AaveHolder holder(Address address, String amount, String price, String value) {
+        return AaveHolder.builder()
+                .walletAddress(address)
+                .holdingAmount(new BigDecimal(amount))
+                .currentPrice(new BigDecimal(price))
+                .currentValue(new BigDecimal(value))
+                .build();
+    }
+}
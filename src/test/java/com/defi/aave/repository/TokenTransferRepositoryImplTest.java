@@ -0,0 +1,103 @@
+package com.defi.aave.repository;
+
+import com.defi.aave.entity.TokenTransfer;
+import com.defi.aave.model.Address;
+import com.defi.aave.model.TransferRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class TokenTransferRepositoryImplTest {
+    
+    private static final Address A = Address.of("0x00000000000000000000000000000000000000aa");
+    private static final Address B = Address.of("0x00000000000000000000000000000000000000bb");
+    private static final Address C = Address.of("0x00000000000000000000000000000000000000cc");
+    
+    @Autowired
+    private TokenTransferRepository tokenTransferRepository;
+    
+    @Autowired
+    private TestEntityManager entityManager;
+    
+    @Test
+    void streamByAddressesReturnsBothSidesInBlockOrderOnce() {
+        persist(30, B, C, 3);
+        persist(10, Address.ZERO, A, 1);
+        persist(20, A, B, 2);
+        persist(20, C, Address.ZERO, 4);
+        persist(40, B, A, 5);
+        
+        List<TransferRecord> records = new ArrayList<>();
+        long count = tokenTransferRepository.streamByAddresses(Arrays.asList(A, B), records::add);
+        
+        // A→B同时匹配转出和转入条件，只返回一次；C的转出与A、B无关
+        assertEquals(4, count);
+        assertEquals(Arrays.asList(10L, 20L, 30L, 40L), blocks(records));
+        assertEquals(Arrays.asList(1L, 2L, 3L, 5L), values(records));
+    }
+    
+    @Test
+    void streamByAddressesWithoutAddressesReadsNothing() {
+        persist(10, Address.ZERO, A, 1);
+        
+        assertEquals(0, tokenTransferRepository.streamByAddresses(Collections.emptyList(), record -> { }));
+    }
+    
+    @Test
+    void insertAllWritesRecordsReadableInBlockOrder() {
+        byte[] txHash = new byte[32];
+        txHash[31] = 0x01;
+        BigInteger large = new BigInteger("123456789012345678901234567890");
+        int inserted = tokenTransferRepository.insertAll(Arrays.asList(
+                new TransferRecord(20, 1600000020L, txHash, A, B, large),
+                new TransferRecord(10, 1600000010L, txHash, Address.ZERO, A, BigInteger.ONE)));
+        
+        assertEquals(2, inserted);
+        List<TransferRecord> records = new ArrayList<>();
+        tokenTransferRepository.streamInBlockOrder(records::add);
+        assertEquals(Arrays.asList(10L, 20L), blocks(records));
+        assertEquals(large, records.get(1).getValue());
+        assertEquals(A, records.get(1).getFrom());
+        assertEquals(B, records.get(1).getTo());
+        assertEquals(1600000020L, records.get(1).getTimestamp());
+        assertEquals(String.format("0x%064x", 1), tokenTransferRepository.findAll().get(0).getTxHash());
+    }
+    
+    private void persist(long block, Address from, Address to, long value) {
+        entityManager.persist(TokenTransfer.builder()
+                .blockNumber(block)
+                .blockTimestamp(1600000000L + block)
+                .txHash(String.format("0x%064x", block * 100 + value))
+                .fromAddress(from)
+                .toAddress(to)
+                .value(BigInteger.valueOf(value))
+                .build());
+        entityManager.flush();
+    }
+    
+    private static List<Long> blocks(List<TransferRecord> records) {
+        List<Long> blocks = new ArrayList<>();
+        for (TransferRecord record : records) {
+            blocks.add(record.getBlockNumber());
+        }
+        return blocks;
+    }
+    
+    private static List<Long> values(List<TransferRecord> records) {
+        List<Long> values = new ArrayList<>();
+        for (TransferRecord record : records) {
+            values.add(record.getValue().longValueExact());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,100 @@
+package com.defi.aave.service;
+
+import com.defi.aave.model.Address;
+import com.defi.aave.model.TransferRecord;
+import com.defi.aave.repository.TokenTransferRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceLedgerServiceTest {
+    
+    private static final Address A = Address.of("0x00000000000000000000000000000000000000aa");
+    private static final Address B = Address.of("0x00000000000000000000000000000000000000bb");
+    
+    @Mock
+    private TokenTransferRepository tokenTransferRepository;
+    
+    @InjectMocks
+    private BalanceLedgerService balanceLedgerService;
+    
+    @Test
+    void firstCatchUpRebuildsFromSumsUpToMaxBlock() {
+        when(tokenTransferRepository.findMaxBlockNumber()).thenReturn(100L);
+        when(tokenTransferRepository.sumValueGroupByToAddress(100L)).thenReturn(Arrays.asList(
+                new Object[]{A, tokens(10)}, new Object[]{B, tokens(3)}, new Object[]{Address.ZERO, tokens(1)}));
+        when(tokenTransferRepository.sumValueGroupByFromAddress(100L)).thenReturn(Arrays.asList(
+                new Object[]{A, tokens(4)}, new Object[]{B, tokens(3)}, new Object[]{Address.ZERO, tokens(10)}));
+        
+        assertEquals(100L, balanceLedgerService.catchUp());
+        
+        assertBalance(6, A);
+        assertBalance(0, B);
+        assertBalance(0, Address.ZERO);
+        verify(tokenTransferRepository, never()).streamAfterBlock(anyLong(), any());
+    }
+    
+    @Test
+    void laterCatchUpAppliesOnlyTransfersAfterLastAppliedBlock() {
+        when(tokenTransferRepository.findMaxBlockNumber()).thenReturn(100L);
+        when(tokenTransferRepository.sumValueGroupByToAddress(100L)).thenReturn(
+                Collections.singletonList(new Object[]{A, tokens(5)}));
+        when(tokenTransferRepository.sumValueGroupByFromAddress(100L)).thenReturn(Collections.emptyList());
+        balanceLedgerService.catchUp();
+        
+        when(tokenTransferRepository.streamAfterBlock(eq(100L), any())).thenAnswer(invocation -> {
+            Consumer<TransferRecord> action = invocation.getArgument(1);
+            action.accept(transfer(101, A, B, 2));
+            action.accept(transfer(105, Address.ZERO, B, 1));
+            return 2L;
+        });
+        when(tokenTransferRepository.streamAfterBlock(eq(105L), any())).thenReturn(0L);
+        
+        assertEquals(105L, balanceLedgerService.catchUp());
+        assertBalance(3, A);
+        assertBalance(3, B);
+        
+        // 没有新转账时已计入的区块号保持不变
+        assertEquals(105L, balanceLedgerService.catchUp());
+        assertBalance(3, A);
+    }
+    
+    @Test
+    void emptyTableStartsBeforeFirstBlock() {
+        when(tokenTransferRepository.findMaxBlockNumber()).thenReturn(null);
+        when(tokenTransferRepository.sumValueGroupByToAddress(-1L)).thenReturn(Collections.emptyList());
+        when(tokenTransferRepository.sumValueGroupByFromAddress(-1L)).thenReturn(Collections.emptyList());
+        
+        assertEquals(-1L, balanceLedgerService.catchUp());
+        assertBalance(0, A);
+    }
+    
+    private void assertBalance(long expectedTokens, Address address) {
+        assertEquals(0, BigDecimal.valueOf(expectedTokens).compareTo(balanceLedgerService.getBalance(address)));
+    }
+    
+    private static BigInteger tokens(long amount) {
+        return BigInteger.TEN.pow(18).multiply(BigInteger.valueOf(amount));
+    }
+    
+    private static TransferRecord transfer(long block, Address from, Address to, long amount) {
+        return new TransferRecord(block, 1600000000L + block, new byte[32], from, to, tokens(amount));
+    }
+}
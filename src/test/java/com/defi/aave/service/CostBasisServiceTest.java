@@ -0,0 +1,215 @@
+package com.defi.aave.service;
+
+import com.defi.aave.model.Address;
+import com.defi.aave.model.TransferRecord;
+import com.defi.aave.repository.TokenTransferRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CostBasisServiceTest {
+    
+    private static final Address A = Address.of("0x00000000000000000000000000000000000000aa");
+    private static final Address B = Address.of("0x00000000000000000000000000000000000000bb");
+    private static final BigInteger E18 = BigInteger.TEN.pow(18);
+    
+    @Mock
+    private TokenTransferRepository tokenTransferRepository;
+    
+    @Mock
+    private PriceHistoryService priceHistoryService;
+    
+    @InjectMocks
+    private CostBasisService costBasisService;
+    
+    private final List<TransferRecord> ledger = new ArrayList<>();
+    
+    private final List<Integer> streamedChunks = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        when(tokenTransferRepository.streamInBlockOrder(any())).thenAnswer(invocation -> {
+            Consumer<TransferRecord> action = invocation.getArgument(0);
+            ledger.forEach(action);
+            return (long) ledger.size();
+        });
+        when(tokenTransferRepository.streamByAddresses(any(), any())).thenAnswer(invocation -> {
+            Collection<Address> addresses = invocation.getArgument(0);
+            Consumer<TransferRecord> action = invocation.getArgument(1);
+            streamedChunks.add(addresses.size());
+            long count = 0;
+            for (TransferRecord record : ledger) {
+                if (addresses.contains(record.getFrom()) || addresses.contains(record.getTo())) {
+                    action.accept(record);
+                    count++;
+                }
+            }
+            return count;
+        });
+        price(1, "100");
+        price(2, "200");
+        price(3, "300");
+    }
+    
+    @Test
+    void fifoConsumesOldestLotsFirst() {
+        transfer(1, Address.ZERO, B, 100);
+        transfer(1, Address.ZERO, A, 10);
+        transfer(2, B, A, 10);
+        transfer(3, A, B, 5);
+        
+        Map<Address, BigDecimal> result = costBasisService.compute(Arrays.asList(A, B), CostBasisService.Method.FIFO);
+        
+        // A: 10@100 + 10@200，转出5个冲减最早批次 => 5@100 + 10@200
+        assertCost("2500", result.get(A));
+        // B: 100@100，转出10个 => 90@100，再转入5@300
+        assertCost("10500", result.get(B));
+    }
+    
+    @Test
+    void averageReducesCostProportionally() {
+        transfer(1, Address.ZERO, A, 10);
+        transfer(2, B, A, 10);
+        transfer(3, A, B, 5);
+        
+        Map<Address, BigDecimal> result = costBasisService.compute(Arrays.asList(A), CostBasisService.Method.AVERAGE);
+        
+        // 20个成本3000，转出5个后剩余15个，成本按比例为2250
+        assertCost("2250", result.get(A));
+        assertFalse(result.containsKey(B));
+    }
+    
+    @Test
+    void ignoresSelfAndZeroValueTransfers() {
+        transfer(1, Address.ZERO, A, 10);
+        transfer(2, A, A, 10);
+        ledger.add(new TransferRecord(ledger.size() + 1, timestamp(3), new byte[32], A, B, BigInteger.ZERO));
+        
+        Map<Address, BigDecimal> fifo = costBasisService.compute(Arrays.asList(A), CostBasisService.Method.FIFO);
+        Map<Address, BigDecimal> average = costBasisService.compute(Arrays.asList(A), CostBasisService.Method.AVERAGE);
+        
+        assertCost("1000", fifo.get(A));
+        assertCost("1000", average.get(A));
+    }
+    
+    @Test
+    void omitsAddressesWhoseRemainingLotsLackPrices() {
+        transfer(1, Address.ZERO, A, 10);
+        transfer(4, Address.ZERO, A, 10);
+        
+        Map<Address, BigDecimal> result = costBasisService.compute(Arrays.asList(A), CostBasisService.Method.FIFO);
+        
+        assertTrue(result.isEmpty());
+    }
+    
+    @Test
+    void unpricedLotsStopMatteringOnceSold() {
+        when(priceHistoryService.getPriceOn(eq(LocalDate.of(2021, 1, 1)))).thenReturn(null);
+        transfer(1, Address.ZERO, A, 10);
+        transfer(1, A, B, 10);
+        transfer(2, Address.ZERO, A, 5);
+        
+        Map<Address, BigDecimal> fifo = costBasisService.compute(Arrays.asList(A), CostBasisService.Method.FIFO);
+        Map<Address, BigDecimal> average = costBasisService.compute(Arrays.asList(A), CostBasisService.Method.AVERAGE);
+        
+        assertCost("1000", fifo.get(A));
+        assertCost("1000", average.get(A));
+    }
+    
+    @Test
+    void outflowsBeyondRecordedInflowsAreIgnored() {
+        transfer(1, A, B, 5);
+        transfer(2, Address.ZERO, A, 10);
+        
+        Map<Address, BigDecimal> result = costBasisService.compute(Arrays.asList(A), CostBasisService.Method.FIFO);
+        
+        assertCost("2000", result.get(A));
+    }
+    
+    @Test
+    void targetedComputeReadsOnlyRequestedAddresses() {
+        transfer(1, Address.ZERO, B, 100);
+        transfer(1, Address.ZERO, A, 10);
+        transfer(2, B, A, 10);
+        transfer(3, A, B, 5);
+        
+        Map<Address, BigDecimal> targeted = costBasisService.compute(Arrays.asList(A, B), CostBasisService.Method.FIFO);
+        Map<Address, BigDecimal> full = costBasisService.computeFromFullLedger(Arrays.asList(A, B),
+                CostBasisService.Method.FIFO);
+        
+        assertEquals(full, targeted);
+        assertEquals(Arrays.asList(2), streamedChunks);
+        verify(tokenTransferRepository, times(1)).streamInBlockOrder(any());
+    }
+    
+    @Test
+    void transfersBetweenChunksAreCountedOncePerSide() {
+        List<Address> addresses = new ArrayList<>();
+        for (int i = 1; i <= 501; i++) {
+            addresses.add(Address.of(String.format("0x%040x", 0x1000 + i)));
+        }
+        Address first = addresses.get(0);
+        Address last = addresses.get(500);
+        transfer(1, Address.ZERO, first, 10);
+        transfer(2, first, last, 4);
+        
+        Map<Address, BigDecimal> result = costBasisService.compute(addresses, CostBasisService.Method.FIFO);
+        
+        // first与last分在两块，转账在两块中各读到一次，但每块只记录本块地址的一侧
+        assertEquals(Arrays.asList(500, 1), streamedChunks);
+        assertCost("600", result.get(first));
+        assertCost("800", result.get(last));
+        assertEquals(2, result.size());
+    }
+    
+    @Test
+    void parsesMethodCaseInsensitively() {
+        assertEquals(CostBasisService.Method.FIFO, CostBasisService.Method.parse("fifo"));
+        assertEquals(CostBasisService.Method.AVERAGE, CostBasisService.Method.parse("Average"));
+        assertThrows(IllegalArgumentException.class, () -> CostBasisService.Method.parse("LIFO"));
+    }
+    
+    private void transfer(int day, Address from, Address to, int amount) {
+        ledger.add(new TransferRecord(ledger.size() + 1, timestamp(day), new byte[32], from, to,
+                BigInteger.valueOf(amount).multiply(E18)));
+    }
+    
+    private static long timestamp(int day) {
+        return LocalDate.of(2021, 1, day).toEpochDay() * 86400 + 3600;
+    }
+    
+    private void price(int day, String price) {
+        when(priceHistoryService.getPriceOn(eq(LocalDate.of(2021, 1, day)))).thenReturn(new BigDecimal(price));
+    }
+    
+    private static void assertCost(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), "cost basis " + actual);
+    }
+}
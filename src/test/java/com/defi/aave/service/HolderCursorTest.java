@@ -0,0 +1,73 @@
+package com.defi.aave.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HolderCursorTest {
+    
+    @Test
+    void roundTripKeepsExactKeyAndId() {
+        BigDecimal key = new BigDecimal("123456789.000000000000000001");
+        String encoded = new HolderCursor("holdingAmount", false, key, 42L).encode();
+        
+        HolderCursor decoded = HolderCursor.decode(encoded, "holdingAmount", false);
+        
+        assertEquals(key, decoded.getKey());
+        assertEquals(42L, decoded.getId());
+    }
+    
+    @Test
+    void roundTripKeepsNullKey() {
+        String encoded = new HolderCursor("profitLossPercentage", true, null, 7L).encode();
+        
+        HolderCursor decoded = HolderCursor.decode(encoded, "profitLossPercentage", true);
+        
+        assertNull(decoded.getKey());
+        assertEquals(7L, decoded.getId());
+    }
+    
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String encoded = new HolderCursor("profitLossPercentage", false, new BigDecimal("-1E-8"), Long.MAX_VALUE)
+                .encode();
+        
+        assertFalse(encoded.matches(".*[+/=].*"));
+        assertEquals(new BigDecimal("-0.00000001"),
+                HolderCursor.decode(encoded, "profitLossPercentage", false).getKey());
+    }
+    
+    @Test
+    void rejectsCursorForDifferentSort() {
+        String encoded = new HolderCursor("holdingAmount", false, BigDecimal.TEN, 1L).encode();
+        
+        assertThrows(IllegalArgumentException.class,
+                () -> HolderCursor.decode(encoded, "profitLossPercentage", false));
+        assertThrows(IllegalArgumentException.class,
+                () -> HolderCursor.decode(encoded, "holdingAmount", true));
+    }
+    
+    @Test
+    void rejectsMalformedCursors() {
+        assertThrows(IllegalArgumentException.class, () -> HolderCursor.decode("not base64!", "holdingAmount", false));
+        assertThrows(IllegalArgumentException.class, () -> HolderCursor.decode(raw("v2|holdingAmount|desc|10|1"),
+                "holdingAmount", false));
+        assertThrows(IllegalArgumentException.class, () -> HolderCursor.decode(raw("v1|holdingAmount|desc|10"),
+                "holdingAmount", false));
+        assertThrows(IllegalArgumentException.class, () -> HolderCursor.decode(raw("v1|holdingAmount|desc|abc|1"),
+                "holdingAmount", false));
+        assertThrows(IllegalArgumentException.class, () -> HolderCursor.decode(raw("v1|holdingAmount|desc|10|x"),
+                "holdingAmount", false));
+    }
+    
+    private static String raw(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
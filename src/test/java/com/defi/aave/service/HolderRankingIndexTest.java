@@ -0,0 +1,239 @@
+package com.defi.aave.service;
+
+import com.defi.aave.dto.HolderDto;
+import com.defi.aave.dto.PageDto;
+import com.defi.aave.entity.AaveHolder;
+import com.defi.aave.model.Address;
+import com.defi.aave.repository.AaveHolderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HolderRankingIndexTest {
+    
+    private static final BigDecimal MIN = new BigDecimal("3000");
+    
+    @Mock
+    private AaveHolderRepository aaveHolderRepository;
+    
+    @InjectMocks
+    private HolderRankingIndex index;
+    
+    /**
+     * 以地址为键的期望数据，与合并进索引的持有者保持一致
+     */
+    private final Map<Address, AaveHolder> expected = new LinkedHashMap<>();
+    
+    @BeforeEach
+    void setUp() {
+        when(aaveHolderRepository.findAll()).thenReturn(Collections.emptyList());
+    }
+    
+    @Test
+    void mergedBatchesMatchFullSortByAmount() {
+        loadRandomHolders();
+        
+        List<AaveHolder> matching = matching(MIN);
+        List<String> desc = addresses(sorted(matching, byAmountDesc()));
+        List<String> asc = new ArrayList<>(desc);
+        Collections.reverse(asc);
+        
+        PageDto<HolderDto> page = index.page(0, 1000, HolderRankingIndex.SortField.HOLDING_AMOUNT, false, MIN);
+        assertEquals(matching.size(), page.getTotalElements().intValue());
+        assertEquals(desc, addresses(page));
+        assertEquals(asc, addresses(index.page(0, 1000, HolderRankingIndex.SortField.HOLDING_AMOUNT, true, MIN)));
+        assertEquals(desc, pagedAddresses(HolderRankingIndex.SortField.HOLDING_AMOUNT, false, MIN, 7));
+    }
+    
+    @Test
+    void profitOrderPutsMissingProfitLastWhenDescending() {
+        loadRandomHolders();
+        
+        List<String> desc = addresses(sorted(matching(MIN), byProfitDesc()));
+        List<HolderDto> content = index.page(0, 1000, HolderRankingIndex.SortField.PROFIT_LOSS_PERCENTAGE, false, MIN)
+                .getContent();
+        
+        assertEquals(desc, addresses(content));
+        assertNull(content.get(content.size() - 1).getProfitLossPercentage());
+        assertEquals(desc, pagedAddresses(HolderRankingIndex.SortField.PROFIT_LOSS_PERCENTAGE, false, MIN, 7));
+        
+        List<String> asc = new ArrayList<>(desc);
+        Collections.reverse(asc);
+        assertEquals(asc, pagedAddresses(HolderRankingIndex.SortField.PROFIT_LOSS_PERCENTAGE, true, MIN, 11));
+    }
+    
+    @Test
+    void profitOrderFollowsChangingMinHolding() {
+        loadRandomHolders();
+        BigDecimal lower = new BigDecimal("2500");
+        
+        List<String> atMin = addresses(index.page(0, 1000,
+                HolderRankingIndex.SortField.PROFIT_LOSS_PERCENTAGE, false, MIN));
+        List<String> atLower = addresses(index.page(0, 1000,
+                HolderRankingIndex.SortField.PROFIT_LOSS_PERCENTAGE, false, lower));
+        
+        assertEquals(addresses(sorted(matching(MIN), byProfitDesc())), atMin);
+        assertEquals(addresses(sorted(matching(lower), byProfitDesc())), atLower);
+        assertTrue(atLower.size() > atMin.size());
+        assertEquals(atMin, addresses(index.page(0, 1000,
+                HolderRankingIndex.SortField.PROFIT_LOSS_PERCENTAGE, false, new BigDecimal("3000.000"))));
+    }
+    
+    @Test
+    void minHoldingComparesExactAmountsBeyondIndexScale() {
+        apply(holder(1, "3000", "1"), holder(2, "2999.999999999999999999", "2"),
+                holder(3, "3000.000000000000000001", "3"));
+        
+        PageDto<HolderDto> page = index.page(0, 10, HolderRankingIndex.SortField.HOLDING_AMOUNT, false, MIN);
+        
+        assertEquals(Arrays.asList(address(3).toString(), address(1).toString()), addresses(page));
+        assertEquals(2, index.page(0, 10, HolderRankingIndex.SortField.PROFIT_LOSS_PERCENTAGE, false, MIN)
+                .getContent().size());
+    }
+    
+    @Test
+    void pageMetadata() {
+        for (int i = 1; i <= 5; i++) {
+            apply(holder(i, String.valueOf(3000 + i), null));
+        }
+        
+        PageDto<HolderDto> last = index.page(2, 2, HolderRankingIndex.SortField.HOLDING_AMOUNT, false, MIN);
+        
+        assertEquals(5L, last.getTotalElements().longValue());
+        assertEquals(3, last.getTotalPages().intValue());
+        assertEquals(1, last.getContent().size());
+        assertFalse(last.getFirst());
+        assertTrue(last.getLast());
+        assertTrue(index.page(5, 2, HolderRankingIndex.SortField.HOLDING_AMOUNT, false, MIN).getContent().isEmpty());
+    }
+    
+    @Test
+    void applyAndInvalidateAdvanceDataVersion() {
+        long initial = index.getDataVersion();
+        
+        apply(holder(1, "5000", "10"));
+        assertEquals(initial + 1, index.getDataVersion());
+        
+        index.apply(Collections.emptyList());
+        assertEquals(initial + 1, index.getDataVersion());
+        
+        AaveHolder stored = holder(2, "4000", "5");
+        when(aaveHolderRepository.findAll()).thenReturn(Collections.singletonList(stored));
+        index.invalidate();
+        assertEquals(initial + 2, index.getDataVersion());
+        
+        List<String> reloaded = addresses(index.page(0, 10, HolderRankingIndex.SortField.HOLDING_AMOUNT, false, MIN));
+        assertEquals(Collections.singletonList(address(2).toString()), reloaded);
+        verify(aaveHolderRepository, times(2)).findAll();
+    }
+    
+    /**
+     * 分三批合并随机持有者，第三批更新部分已有地址的持仓量和收益率
+     */
+    private void loadRandomHolders() {
+        Random random = new Random(7);
+        List<AaveHolder> batch = new ArrayList<>();
+        for (int i = 1; i <= 300; i++) {
+            String profit = random.nextInt(5) == 0 ? null : (random.nextInt(1000) - 500) + ".25";
+            batch.add(holder(i, (2000 + random.nextInt(3000)) + ".000000000000000001", profit));
+            if (batch.size() == 150) {
+                apply(batch.toArray(new AaveHolder[0]));
+                batch.clear();
+            }
+        }
+        for (int i = 0; i < 40; i++) {
+            batch.add(holder(1 + i * 7, String.valueOf(1000 + i * 150), random.nextBoolean() ? null : i + ".5"));
+        }
+        apply(batch.toArray(new AaveHolder[0]));
+    }
+    
+    private void apply(AaveHolder... holders) {
+        for (AaveHolder holder : holders) {
+            expected.put(holder.getWalletAddress(), holder);
+        }
+        index.apply(Arrays.asList(holders));
+    }
+    
+    private List<AaveHolder> matching(BigDecimal minHolding) {
+        return expected.values().stream()
+                .filter(holder -> holder.getHoldingAmount().compareTo(minHolding) >= 0)
+                .collect(Collectors.toList());
+    }
+    
+    private List<String> pagedAddresses(HolderRankingIndex.SortField sortField, boolean ascending,
+                                        BigDecimal minHolding, int size) {
+        List<String> result = new ArrayList<>();
+        for (int page = 0; ; page++) {
+            PageDto<HolderDto> current = index.page(page, size, sortField, ascending, minHolding);
+            result.addAll(addresses(current));
+            if (current.getLast()) {
+                return result;
+            }
+        }
+    }
+    
+    private static Comparator<AaveHolder> byAmountDesc() {
+        return Comparator.comparing(AaveHolder::getHoldingAmount).reversed()
+                .thenComparing(AaveHolder::getWalletAddress);
+    }
+    
+    private static Comparator<AaveHolder> byProfitDesc() {
+        return Comparator.comparing(AaveHolder::getProfitLossPercentage,
+                Comparator.nullsFirst(Comparator.<BigDecimal>naturalOrder())).reversed()
+                .thenComparing(byAmountDesc());
+    }
+    
+    private static List<AaveHolder> sorted(List<AaveHolder> holders, Comparator<AaveHolder> comparator) {
+        List<AaveHolder> copy = new ArrayList<>(holders);
+        copy.sort(comparator);
+        return copy;
+    }
+    
+    private static List<String> addresses(List<?> rows) {
+        return rows.stream()
+                .map(row -> row instanceof AaveHolder
+                        ? ((AaveHolder) row).getWalletAddress().toString() : ((HolderDto) row).getWalletAddress())
+                .collect(Collectors.toList());
+    }
+    
+    private static List<String> addresses(PageDto<HolderDto> page) {
+        return addresses(page.getContent());
+    }
+    
+    private static Address address(int i) {
+        return Address.of(String.format("0x%040x", i));
+    }
+    
+    private static AaveHolder holder(int i, String amount, String profitPercentage) {
+        return AaveHolder.builder()
+                .walletAddress(address(i))
+                .holdingAmount(new BigDecimal(amount))
+                .currentPrice(BigDecimal.ONE)
+                .currentValue(new BigDecimal(amount))
+                .profitLossPercentage(profitPercentage != null ? new BigDecimal(profitPercentage) : null)
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.defi.aave.service;
+
+import com.defi.aave.dto.SyncJobDto;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class SyncJobServiceTest {
+    
+    private final AaveHolderService aaveHolderService = mock(AaveHolderService.class);
+    private final ThreadPoolTaskExecutor syncJobExecutor = mock(ThreadPoolTaskExecutor.class);
+    
+    /**
+     * 已提交但尚未执行的任务，由测试手动执行以控制任务状态
+     */
+    private final List<Runnable> submitted = new ArrayList<>();
+    
+    private SyncJobService syncJobService;
+    
+    @BeforeEach
+    void setUp() {
+        syncJobService = new SyncJobService();
+        ReflectionTestUtils.setField(syncJobService, "aaveHolderService", aaveHolderService);
+        ReflectionTestUtils.setField(syncJobService, "syncJobExecutor", syncJobExecutor);
+        ReflectionTestUtils.setField(syncJobService, "syncJobCache", Caffeine.newBuilder().build());
+        doAnswer(invocation -> submitted.add(invocation.getArgument(0))).when(syncJobExecutor).execute(any());
+    }
+    
+    @Test
+    void jobRunsToCompletedWithProgress() {
+        doAnswer(invocation -> {
+            SyncProgress progress = invocation.getArgument(0);
+            progress.recordSuccess(2);
+            progress.recordSkipped(1);
+            return null;
+        }).when(aaveHolderService).syncHolders(any());
+        
+        SyncJobDto started = syncJobService.startSync();
+        assertEquals("RUNNING", started.getStatus());
+        assertEquals("SYNC", started.getType());
+        assertTrue(syncJobService.isRunning());
+        
+        submitted.get(0).run();
+        
+        SyncJobDto job = syncJobService.getJob(started.getJobId());
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(2, job.getSuccessCount());
+        assertEquals(1, job.getSkippedCount());
+        assertNotNull(job.getEndTime());
+        assertFalse(syncJobService.isRunning());
+    }
+    
+    @Test
+    void failedJobRecordsErrorAndReleasesSlot() {
+        doThrow(new IllegalStateException("Etherscan unavailable")).when(aaveHolderService).syncHolders(any());
+        
+        SyncJobDto started = syncJobService.startSync();
+        submitted.get(0).run();
+        
+        SyncJobDto job = syncJobService.getJob(started.getJobId());
+        assertEquals("FAILED", job.getStatus());
+        assertEquals("Etherscan unavailable", job.getErrorMessage());
+        assertFalse(syncJobService.isRunning());
+        assertNotNull(syncJobService.startSync());
+    }
+    
+    @Test
+    void rejectsSecondSubmissionWhileRunning() {
+        SyncJobDto running = syncJobService.startSync();
+        
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> syncJobService.startSync());
+        assertTrue(e.getMessage().contains(running.getJobId()));
+        // 同步与持仓成本重算共用同一个任务槽位
+        assertThrows(IllegalStateException.class,
+                () -> syncJobService.startCostBasisRecompute(CostBasisService.Method.FIFO));
+        assertEquals(1, submitted.size());
+        
+        submitted.get(0).run();
+        SyncJobDto next = syncJobService.startCostBasisRecompute(CostBasisService.Method.FIFO);
+        assertEquals("COST_BASIS", next.getType());
+        
+        submitted.get(1).run();
+        verify(aaveHolderService).recomputeCostBasis(isNull(), eq(CostBasisService.Method.FIFO), any());
+        assertEquals("COMPLETED", syncJobService.getJob(next.getJobId()).getStatus());
+    }
+    
+    @Test
+    void executorRejectionReleasesSlot() {
+        doThrow(new TaskRejectedException("queue full")).when(syncJobExecutor).execute(any());
+        
+        assertThrows(TaskRejectedException.class, () -> syncJobService.startSync());
+        assertFalse(syncJobService.isRunning());
+    }
+    
+    @Test
+    void unknownJobIsNull() {
+        assertNull(syncJobService.getJob("missing"));
+    }
+}
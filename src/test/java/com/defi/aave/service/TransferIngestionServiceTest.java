@@ -0,0 +1,180 @@
+package com.defi.aave.service;
+
+import com.defi.aave.client.EtherscanApiClient;
+import com.defi.aave.config.AaveProperties;
+import com.defi.aave.entity.SyncCheckpoint;
+import com.defi.aave.model.Address;
+import com.defi.aave.model.TransferRecord;
+import com.defi.aave.repository.SyncCheckpointRepository;
+import com.defi.aave.repository.TokenTransferRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransferIngestionServiceTest {
+    
+    private static final Address A = Address.of("0x00000000000000000000000000000000000000aa");
+    private static final Address B = Address.of("0x00000000000000000000000000000000000000bb");
+    
+    private final EtherscanApiClient etherscanApiClient = mock(EtherscanApiClient.class);
+    private final TokenTransferRepository tokenTransferRepository = mock(TokenTransferRepository.class);
+    private final SyncCheckpointRepository syncCheckpointRepository = mock(SyncCheckpointRepository.class);
+    private final AaveProperties aaveProperties = new AaveProperties();
+    
+    private TransferIngestionService service;
+    
+    /**
+     * 每次insertAll保存的区块号，以及随后保存的检查点
+     */
+    private final List<List<Long>> savedBlocks = new ArrayList<>();
+    private final List<Long> checkpoints = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        aaveProperties.getSync().setStartBlock(100L);
+        aaveProperties.getSync().setTransferPageSize(3);
+        aaveProperties.getSync().setMaxTransferPages(10);
+        
+        service = new TransferIngestionService(mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "etherscanApiClient", etherscanApiClient);
+        ReflectionTestUtils.setField(service, "tokenTransferRepository", tokenTransferRepository);
+        ReflectionTestUtils.setField(service, "syncCheckpointRepository", syncCheckpointRepository);
+        ReflectionTestUtils.setField(service, "aaveProperties", aaveProperties);
+        
+        when(syncCheckpointRepository.findById(TransferIngestionService.CHECKPOINT_NAME)).thenReturn(Optional.empty());
+        when(tokenTransferRepository.insertAll(any())).thenAnswer(invocation -> {
+            Collection<TransferRecord> records = invocation.getArgument(0);
+            List<Long> blocks = new ArrayList<>();
+            records.forEach(record -> blocks.add(record.getBlockNumber()));
+            savedBlocks.add(blocks);
+            return records.size();
+        });
+        when(syncCheckpointRepository.save(any())).thenAnswer(invocation -> {
+            checkpoints.add(invocation.<SyncCheckpoint>getArgument(0).getBlockNumber());
+            return invocation.getArgument(0);
+        });
+    }
+    
+    @Test
+    void dropsPartialLastBlockOfFullPageAndContinuesFromIt() {
+        page(100, 100, 101, 102);
+        page(102, 102, 103);
+        
+        assertEquals(4, service.ingest());
+        
+        assertEquals(Arrays.asList(Arrays.asList(100L, 101L), Arrays.asList(102L, 103L)), savedBlocks);
+        assertEquals(Arrays.asList(101L, 103L), checkpoints);
+    }
+    
+    @Test
+    void pagesWithinBlockWhenFullPageIsOneBlock() {
+        page(100, 100, 100, 100);
+        blockPage(100, 2, 100, 100, 100);
+        blockPage(100, 3, 100);
+        page(101);
+        
+        assertEquals(7, service.ingest());
+        
+        assertEquals(Collections.singletonList(Collections.nCopies(7, 100L)), savedBlocks);
+        assertEquals(Collections.singletonList(100L), checkpoints);
+    }
+    
+    @Test
+    void failsWithoutAdvancingCheckpointWhenBlockExceedsResultWindow() {
+        aaveProperties.getSync().setTransferPageSize(5000);
+        when(etherscanApiClient.streamTokenTransfers(eq(100L), eq(5000), any())).thenAnswer(invocation ->
+                emit(invocation.getArgument(2), Collections.nCopies(5000, 100L)));
+        when(etherscanApiClient.streamTokenTransfers(eq(100L), eq(100L), eq(2), eq(5000), any())).thenAnswer(
+                invocation -> emit(invocation.getArgument(4), Collections.nCopies(5000, 100L)));
+        
+        assertThrows(IllegalStateException.class, () -> service.ingest());
+        
+        verify(tokenTransferRepository, never()).insertAll(any());
+        verify(syncCheckpointRepository, never()).save(any());
+    }
+    
+    @Test
+    void resumesFromStoredCheckpoint() {
+        when(syncCheckpointRepository.findById(TransferIngestionService.CHECKPOINT_NAME)).thenReturn(Optional.of(
+                SyncCheckpoint.builder().name(TransferIngestionService.CHECKPOINT_NAME).blockNumber(500L).build()));
+        page(501, 505);
+        
+        assertEquals(1, service.ingest());
+        
+        assertEquals(Collections.singletonList(505L), checkpoints);
+    }
+    
+    @Test
+    void keepsCommittedPagesWhenLaterPageFails() {
+        page(100, 100, 101, 102);
+        when(etherscanApiClient.streamTokenTransfers(eq(102L), anyInt(), any()))
+                .thenThrow(new IllegalStateException("NOTOK"));
+        
+        assertThrows(IllegalStateException.class, () -> service.ingest());
+        
+        assertEquals(Collections.singletonList(101L), checkpoints);
+        verify(etherscanApiClient, never()).streamTokenTransfers(anyLong(), anyLong(), anyInt(), anyInt(), any());
+    }
+    
+    @Test
+    void stopsAfterMaxTransferPages() {
+        aaveProperties.getSync().setMaxTransferPages(1);
+        page(100, 100, 101, 102);
+        
+        assertEquals(2, service.ingest());
+        
+        assertEquals(Collections.singletonList(101L), checkpoints);
+    }
+    
+    /**
+     * 从startBlock开始的主翻页请求返回的区块号
+     */
+    private void page(long startBlock, long... blocks) {
+        List<Long> list = new ArrayList<>();
+        for (long block : blocks) {
+            list.add(block);
+        }
+        when(etherscanApiClient.streamTokenTransfers(eq(startBlock), anyInt(), any()))
+                .thenAnswer(invocation -> emit(invocation.getArgument(2), list));
+    }
+    
+    /**
+     * 限定在单个区块内的第page页请求返回的区块号
+     */
+    private void blockPage(long block, int page, long... blocks) {
+        List<Long> list = new ArrayList<>();
+        for (long value : blocks) {
+            list.add(value);
+        }
+        when(etherscanApiClient.streamTokenTransfers(eq(block), eq(block), eq(page), anyInt(), any()))
+                .thenAnswer(invocation -> emit(invocation.getArgument(4), list));
+    }
+    
+    private static int emit(Consumer<TransferRecord> consumer, List<Long> blocks) {
+        for (Long block : blocks) {
+            consumer.accept(new TransferRecord(block, 1600000000L + block, new byte[32], A, B, BigInteger.ONE));
+        }
+        return blocks.size();
+    }
+}